@@ -0,0 +1,81 @@
+package org.simdjson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BitIndexesBenchmark {
+
+    private static final int BLOCKS = 16 * 1024;
+
+    // The average number of structural characters in a block of 64 bytes. Documents like twitter.json have about 8,
+    // while arrays of small numbers have more than 30.
+    @Param({"4", "8", "16", "32"})
+    int bitsPerBlock;
+    long[] blocks;
+    BitIndexes bitIndexes;
+    CompactBitIndexes compactBitIndexes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        blocks = new long[BLOCKS];
+        for (int i = 0; i < BLOCKS; i++) {
+            for (int j = 0; j < 64; j++) {
+                if (random.nextInt(64) < bitsPerBlock) {
+                    blocks[i] |= 1L << j;
+                }
+            }
+        }
+        bitIndexes = new BitIndexes(BLOCKS * 64 + 64);
+        compactBitIndexes = new CompactBitIndexes(BLOCKS * 64 + 64);
+    }
+
+    @Benchmark
+    public int loop() {
+        bitIndexes.reset();
+        for (int i = 0; i < BLOCKS; i++) {
+            bitIndexes.write((i + 1) * 64, blocks[i]);
+        }
+        return bitIndexes.size();
+    }
+
+    @Benchmark
+    public int compress() {
+        bitIndexes.reset();
+        for (int i = 0; i < BLOCKS; i++) {
+            bitIndexes.writeWithCompress((i + 1) * 64, blocks[i]);
+        }
+        return bitIndexes.size();
+    }
+
+    @Benchmark
+    public int compactLoop() {
+        compactBitIndexes.reset();
+        for (int i = 0; i < BLOCKS; i++) {
+            compactBitIndexes.write((i + 1) * 64, blocks[i]);
+        }
+        return compactBitIndexes.size();
+    }
+
+    @Benchmark
+    public int compactCompress() {
+        compactBitIndexes.reset();
+        for (int i = 0; i < BLOCKS; i++) {
+            compactBitIndexes.writeWithCompress((i + 1) * 64, blocks[i]);
+        }
+        return compactBitIndexes.size();
+    }
+}
@@ -0,0 +1,48 @@
+package org.simdjson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.simdjson.annotations.JsonFieldName;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LazyParseBenchmark {
+
+    private final SimdJsonParser simdJsonParser = new SimdJsonParser();
+
+    private byte[] buffer;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        try (InputStream is = LazyParseBenchmark.class.getResourceAsStream("/gsoc-2018.json")) {
+            buffer = is.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    public String firstProjectName() {
+        return simdJsonParser.parse(buffer, buffer.length, FirstProject.class).project().name();
+    }
+
+    @Benchmark
+    public String firstProjectNameLazily() {
+        return simdJsonParser.parseLazily(buffer, buffer.length, FirstProject.class).project().name();
+    }
+
+    record Project(String name) {
+    }
+
+    record FirstProject(@JsonFieldName("0") Project project) {
+    }
+}
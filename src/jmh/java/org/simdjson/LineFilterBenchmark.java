@@ -0,0 +1,72 @@
+package org.simdjson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LineFilterBenchmark {
+
+    private static final int LINE_COUNT = 100_000;
+    private static final byte[] PATTERN = "\"level\":\"ERROR\"".getBytes(UTF_8);
+
+    @Param({"1", "10"})
+    int errorPercentage;
+
+    private final SimdJsonParser simdJsonParser = new SimdJsonParser();
+
+    private byte[] buffer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < LINE_COUNT; i++) {
+            String level = random.nextInt(100) < errorPercentage ? "ERROR" : "INFO";
+            sb.append("{\"ts\":").append(1_700_000_000_000L + i)
+                    .append(",\"level\":\"").append(level)
+                    .append("\",\"service\":\"checkout\",\"msg\":\"request ").append(random.nextInt())
+                    .append(" handled\",\"latency_ms\":").append(random.nextInt(1000))
+                    .append("}\n");
+        }
+        buffer = sb.toString().getBytes(UTF_8);
+    }
+
+    @Benchmark
+    public int parseAll() {
+        int count = 0;
+        Iterator<JsonValue> documents = simdJsonParser.parseMany(buffer, buffer.length);
+        while (documents.hasNext()) {
+            if (documents.next().get("level").asString().equals("ERROR")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int parseLinesContaining() {
+        int count = 0;
+        Iterator<JsonValue> documents = simdJsonParser.parseLinesContaining(buffer, buffer.length, PATTERN);
+        while (documents.hasNext()) {
+            if (documents.next().get("level").asString().equals("ERROR")) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
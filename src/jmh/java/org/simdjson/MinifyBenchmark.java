@@ -0,0 +1,40 @@
+package org.simdjson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MinifyBenchmark {
+
+    @Param({"/twitter.json", "/gsoc-2018.json", "/github_events.json"})
+    String fileName;
+
+    private byte[] buffer;
+    private byte[] out;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        try (InputStream is = MinifyBenchmark.class.getResourceAsStream(fileName)) {
+            buffer = is.readAllBytes();
+            out = new byte[buffer.length];
+        }
+    }
+
+    @Benchmark
+    public int minify() {
+        return SimdJson.minify(buffer, buffer.length, out);
+    }
+}
@@ -20,6 +20,7 @@ import java.util.Iterator;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.simdjson.SimdJsonPaddingUtil.padded;
 
 @State(Scope.Benchmark)
@@ -27,7 +28,13 @@ import static org.simdjson.SimdJsonPaddingUtil.padded;
 @OutputTimeUnit(TimeUnit.SECONDS)
 public class ParseAndSelectBenchmark {
 
+    private static final byte[] STATUSES = "statuses".getBytes(UTF_8);
+    private static final byte[] USER = "user".getBytes(UTF_8);
+    private static final byte[] DEFAULT_PROFILE = "default_profile".getBytes(UTF_8);
+    private static final byte[] SCREEN_NAME = "screen_name".getBytes(UTF_8);
+
     private final SimdJsonParser simdJsonParser = new SimdJsonParser();
+    private final JsonCursor cursor = new JsonCursor();
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     private byte[] buffer;
@@ -87,6 +94,28 @@ public class ParseAndSelectBenchmark {
         return defaultUsers.size();
     }
 
+    @Benchmark
+    public int countUniqueUsersWithDefaultProfile_simdjsonCursor() {
+        cursor.reset(simdJsonParser.parse(buffer, buffer.length));
+        Set<String> defaultUsers = new HashSet<>();
+        if (cursor.descendToField(STATUSES) && cursor.descend()) {
+            do {
+                if (cursor.descendToField(USER)) {
+                    if (cursor.descendToField(DEFAULT_PROFILE)) {
+                        if (cursor.asBoolean()) {
+                            cursor.ascend();
+                            cursor.descendToField(SCREEN_NAME);
+                            defaultUsers.add(cursor.asString());
+                        }
+                        cursor.ascend();
+                    }
+                    cursor.ascend();
+                }
+            } while (cursor.next());
+        }
+        return defaultUsers.size();
+    }
+
     @Benchmark
     public int countUniqueUsersWithDefaultProfile_simdjsonPadded() {
         JsonValue simdJsonValue = simdJsonParser.parse(bufferPadded, buffer.length);
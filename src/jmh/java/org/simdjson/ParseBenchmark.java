@@ -46,4 +46,9 @@ public class ParseBenchmark {
     public JsonValue simdjsonPadded() {
         return simdJsonParser.parse(bufferPadded, buffer.length);
     }
+
+    @Benchmark
+    public void simdjsonValidate() {
+        simdJsonParser.validate(buffer, buffer.length);
+    }
 }
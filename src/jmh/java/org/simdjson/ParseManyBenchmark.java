@@ -0,0 +1,100 @@
+package org.simdjson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.foreign.MemorySegment;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParseManyBenchmark {
+
+    private static final int DOCUMENT_COUNT = 32;
+
+    @Param({"/twitter.json", "/github_events.json"})
+    String fileName;
+
+    private final SimdJsonParser simdJsonParser = new SimdJsonParser();
+    private final ParallelNdjsonParser parallelNdjsonParser = new ParallelNdjsonParser();
+
+    private ExecutorService executor;
+    private byte[] buffer;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        try (InputStream is = ParseManyBenchmark.class.getResourceAsStream(fileName)) {
+            byte[] document = toSingleLine(is.readAllBytes());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (int i = 0; i < DOCUMENT_COUNT; i++) {
+                out.write(document);
+                out.write('\n');
+            }
+            buffer = out.toByteArray();
+        }
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public int simdjson() {
+        return count(simdJsonParser.parseMany(buffer, buffer.length));
+    }
+
+    @Benchmark
+    public int simdjsonPipelined() {
+        return count(simdJsonParser.parseMany(buffer, buffer.length, executor));
+    }
+
+    @Benchmark
+    public long simdjsonParallel() {
+        LongAdder count = new LongAdder();
+        parallelNdjsonParser.forEach(MemorySegment.ofArray(buffer), document -> {
+            if (document.isObject()) {
+                count.increment();
+            }
+        });
+        return count.sum();
+    }
+
+    private static byte[] toSingleLine(byte[] document) {
+        // Line breaks can't appear inside JSON tokens, so they can be dropped to make the document newline-delimited.
+        ByteArrayOutputStream out = new ByteArrayOutputStream(document.length);
+        for (byte b : document) {
+            if (b != '\n' && b != '\r') {
+                out.write(b);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static int count(Iterator<JsonValue> documents) {
+        int count = 0;
+        while (documents.hasNext()) {
+            if (documents.next().isObject()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
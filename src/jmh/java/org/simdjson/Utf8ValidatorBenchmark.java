@@ -23,12 +23,14 @@ public class Utf8ValidatorBenchmark {
     @Param({"/twitter.json", "/gsoc-2018.json", "/github_events.json"})
     String fileName;
     byte[] bytes;
+    StructuralIndexer structuralIndexer;
 
     @Setup(Level.Trial)
     public void setup() throws IOException {
         try (InputStream is = Utf8ValidatorBenchmark.class.getResourceAsStream(fileName)) {
             bytes = is.readAllBytes();
         }
+        structuralIndexer = new StructuralIndexer(new BitIndexes(bytes.length + 64));
     }
 
     @Benchmark
@@ -36,6 +38,12 @@ public class Utf8ValidatorBenchmark {
         Utf8Validator.validate(bytes, bytes.length);
     }
 
+    // The structural indexer validates UTF-8 in the same pass, on the chunks it loads for indexing.
+    @Benchmark
+    public void structuralIndexerWithUtf8Validation() {
+        structuralIndexer.index(bytes, bytes.length);
+    }
+
     @Benchmark
     public boolean guava() {
         return Utf8.isWellFormed(bytes);
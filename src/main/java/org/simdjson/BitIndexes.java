@@ -1,17 +1,32 @@
 package org.simdjson;
 
-class BitIndexes {
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
 
-    private final int[] indexes;
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+
+import static jdk.incubator.vector.IntVector.SPECIES_512;
+
+class BitIndexes implements IndexReader, IndexWriter {
+
+    private static final int INT_LANES = SPECIES_512.length();
+    private static final long GROUP_MASK = (1L << INT_LANES) - 1;
+    private static final IntVector LANE_INDEXES = IntVector.zero(SPECIES_512).addIndex(1);
+
+    private int[] indexes;
 
     private int writeIdx;
     private int readIdx;
+    private int batchEnd;
+    private int hiddenIndex;
 
     BitIndexes(int capacity) {
         indexes = new int[capacity];
     }
 
-    void write(int blockIndex, long bits) {
+    @Override
+    public void write(int blockIndex, long bits) {
         if (bits == 0) {
             return;
         }
@@ -40,46 +55,78 @@ class BitIndexes {
         writeIdx += cnt;
     }
 
+    @Override
+    public void writeWithCompress(int blockIndex, long bits) {
+        // Compressing lanes is a single instruction (VPCOMPRESSD) only with AVX-512, so this is used only by the 512-bit
+        // kernel. With narrower vectors, it is emulated with shuffles, which is slower than the loop over the set bits.
+        // Up to eight bits are handled by a single pass of the unrolled loop, which is faster than compressing four
+        // groups of bits.
+        if (Long.bitCount(bits) <= 8) {
+            write(blockIndex, bits);
+            return;
+        }
+        // For each group of bits, the positions of the set ones are gathered at the beginning of a vector of all
+        // positions in the group. The whole vector is stored, but the write index is advanced only by the number of set
+        // bits, so the remaining lanes are overwritten by the next group. The capacity of the array is at least 64
+        // greater than the number of indexes, so a whole vector always fits.
+        int idx = blockIndex - 64;
+        for (int i = 0; i < 64; i += INT_LANES) {
+            long groupBits = bits >>> i;
+            VectorMask<Integer> mask = VectorMask.fromLong(SPECIES_512, groupBits);
+            LANE_INDEXES.add(idx + i).compress(mask).intoArray(indexes, writeIdx);
+            writeIdx += Long.bitCount(groupBits & GROUP_MASK);
+        }
+    }
+
     private long clearLowestBit(long bits) {
         return bits & (bits - 1);
     }
 
-    void advance() {
+    @Override
+    public void advance() {
         readIdx++;
     }
 
-    int getAndAdvance() {
+    @Override
+    public int getAndAdvance() {
         assert readIdx <= writeIdx;
         return indexes[readIdx++];
     }
 
-    int getLast() {
+    @Override
+    public int getLast() {
         return indexes[writeIdx - 1];
     }
 
-    int advanceAndGet() {
+    @Override
+    public int advanceAndGet() {
         assert readIdx + 1 <= writeIdx;
         return indexes[++readIdx];
     }
 
-    int peek() {
+    @Override
+    public int peek() {
         assert readIdx <= writeIdx;
         return indexes[readIdx];
     }
 
-    boolean hasNext() {
+    @Override
+    public boolean hasNext() {
         return writeIdx > readIdx;
     }
 
-    boolean isEnd() {
+    @Override
+    public boolean isEnd() {
         return writeIdx == readIdx;
     }
 
-    boolean isPastEnd() {
+    @Override
+    public boolean isPastEnd() {
         return readIdx > writeIdx;
     }
 
-    void finish() {
+    @Override
+    public void finish() {
         // If we go past the end of the detected structural indexes, it means we are dealing with an invalid JSON.
         // Thus, we need to stop processing immediately and throw an exception. To avoid checking after every increment
         // of readIdx whether this has happened, we jump to the first structural element. This should produce the
@@ -91,11 +138,111 @@ class BitIndexes {
         // be ']', we know that if we've reached beyond the buffer without crashing, the input is either '{...}' or '[...]'.
         // Thus, if we jump to the first structural element, we will generate either '{...}{' or '[...]['. Both of these
         // are invalid sequences and will be detected by the iterator, which will then stop processing and throw an
-        // exception informing about the invalid JSON.
-        indexes[writeIdx] = 0;
+        // exception informing about the invalid JSON. The sentinel is the index of the first structural element rather
+        // than 0, because the input doesn't have to start at the beginning of the buffer, and the byte at position 0
+        // might then be anything.
+        indexes[writeIdx] = indexes[0];
+    }
+
+    @Override
+    public void append(BitIndexes other) {
+        System.arraycopy(other.indexes, 0, indexes, writeIdx, other.writeIdx);
+        writeIdx += other.writeIdx;
+    }
+
+    void shift(int from, int delta) {
+        // Turns the positions in a chunk that was indexed on its own into positions in the whole input.
+        for (int i = from; i < writeIdx; i++) {
+            indexes[i] += delta;
+        }
+    }
+
+    void exportTo(MemorySegment segment, long offset) {
+        MemorySegment.copy(indexes, 0, segment, IndexSidecar.INDEX_LAYOUT, offset, writeIdx);
+    }
+
+    boolean importFrom(MemorySegment segment, long offset, int count, int len) {
+        // The indexes replace the output of stage 1, so they are followed by the same sentinel. The iterators rely on
+        // them being increasing positions within the input, which the checksums of the file can't guarantee, so the
+        // import is rejected if they aren't.
+        if (capacity() <= count) {
+            resize(count + 1);
+        }
+        MemorySegment.copy(segment, IndexSidecar.INDEX_LAYOUT, offset, indexes, 0, count);
+        int prev = -1;
+        for (int i = 0; i < count; i++) {
+            int index = indexes[i];
+            if (index <= prev || index >= len) {
+                reset();
+                return false;
+            }
+            prev = index;
+        }
+        writeIdx = count;
+        readIdx = 0;
+        finish();
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return writeIdx;
+    }
+
+    @Override
+    public int position() {
+        return readIdx;
+    }
+
+    int get(int idx) {
+        return indexes[idx];
+    }
+
+    void startDocument(int end) {
+        // Iterators see only the indexes between the read index and the end of the current document. This way, they
+        // can be used without modifications for streams of documents. The sentinel placed after the document plays
+        // the same role as the one written in finish().
+        batchEnd = writeIdx;
+        hiddenIndex = indexes[end];
+        indexes[end] = indexes[readIdx];
+        writeIdx = end;
+    }
+
+    void endDocument() {
+        indexes[writeIdx] = hiddenIndex;
+        readIdx = writeIdx;
+        writeIdx = batchEnd;
+    }
+
+    int capacity() {
+        return indexes.length;
+    }
+
+    void resize(int capacity) {
+        indexes = new int[capacity];
+        writeIdx = 0;
+        readIdx = 0;
+    }
+
+    void grow(int capacity) {
+        // Unlike resize(), keeps the indexes written so far.
+        indexes = Arrays.copyOf(indexes, capacity);
+    }
+
+    void swap(BitIndexes other) {
+        int[] tmpIndexes = indexes;
+        indexes = other.indexes;
+        other.indexes = tmpIndexes;
+        int tmpWriteIdx = writeIdx;
+        writeIdx = other.writeIdx;
+        other.writeIdx = tmpWriteIdx;
+        int tmpReadIdx = readIdx;
+        readIdx = other.readIdx;
+        other.readIdx = tmpReadIdx;
     }
 
-    void reset() {
+    @Override
+    public void reset() {
         writeIdx = 0;
         readIdx = 0;
     }
@@ -0,0 +1,261 @@
+package org.simdjson;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+
+import static jdk.incubator.vector.IntVector.SPECIES_512;
+import static jdk.incubator.vector.VectorOperators.I2S;
+
+// Stores the structural indexes as 16-bit distances from the preceding ones, which halves the memory written in stage 1
+// and read in stage 2. A distance that doesn't fit in 16 bits is replaced with an escape entry followed by the absolute
+// index split into two halves. The index at the read position is decoded in advance, so peeking doesn't decode it
+// again. Random access isn't supported, so this is used only for single documents, which are walked from start to end.
+class CompactBitIndexes implements IndexReader, IndexWriter {
+
+    private static final char ESCAPE = 0xFFFF;
+    private static final int INT_LANES = SPECIES_512.length();
+    private static final long GROUP_MASK = (1L << INT_LANES) - 1;
+    private static final IntVector LANE_INDEXES = IntVector.zero(SPECIES_512).addIndex(1);
+
+    private char[] deltas;
+    private int capacity;
+
+    private int writeIdx;
+    private int writePos;
+    private int lastIndex;
+
+    private int readIdx;
+    private int readPos;
+    private int current;
+
+    CompactBitIndexes(int capacity) {
+        allocate(capacity);
+    }
+
+    @Override
+    public void write(int blockIndex, long bits) {
+        if (bits == 0) {
+            return;
+        }
+
+        // Only the distance to the first index in the block can exceed 16 bits. The distances between the following
+        // ones are written as in BitIndexes.write(), i.e., eight at a time, even if there are fewer bits set.
+        int idx = blockIndex - 64;
+        int cnt = Long.bitCount(bits);
+        int prev = Long.numberOfTrailingZeros(bits);
+        int first = idx + prev;
+        int delta = first - lastIndex;
+        int pos = writePos;
+        if (delta < ESCAPE) {
+            deltas[pos++] = (char) delta;
+        } else {
+            pos = writeEscaped(pos, first);
+        }
+        lastIndex = idx + 63 - Long.numberOfLeadingZeros(bits);
+        writeIdx += cnt;
+        writePos = pos + cnt - 1;
+        bits = clearLowestBit(bits);
+
+        for (int i = 0; i < 8; i++) {
+            int next = Long.numberOfTrailingZeros(bits);
+            deltas[pos + i] = (char) (next - prev);
+            prev = next;
+            bits = clearLowestBit(bits);
+        }
+
+        if (cnt > 9) {
+            for (int i = 8; i < 16; i++) {
+                int next = Long.numberOfTrailingZeros(bits);
+                deltas[pos + i] = (char) (next - prev);
+                prev = next;
+                bits = clearLowestBit(bits);
+            }
+            if (cnt > 17) {
+                int i = 16;
+                do {
+                    int next = Long.numberOfTrailingZeros(bits);
+                    deltas[pos + i] = (char) (next - prev);
+                    prev = next;
+                    bits = clearLowestBit(bits);
+                    i++;
+                } while (i < cnt - 1);
+            }
+        }
+    }
+
+    @Override
+    public void writeWithCompress(int blockIndex, long bits) {
+        // As in BitIndexes.writeWithCompress(), the positions of the set bits are gathered with vector compression.
+        // The distances are then computed by subtracting the same positions shifted by one lane. Only the distance to
+        // the first index in the block is computed separately, because it might have to be escaped.
+        if (Long.bitCount(bits) <= 16) {
+            write(blockIndex, bits);
+            return;
+        }
+        int idx = blockIndex - 64;
+        int prev = Long.numberOfTrailingZeros(bits);
+        int first = idx + prev;
+        int delta = first - lastIndex;
+        int pos = writePos;
+        if (delta < ESCAPE) {
+            deltas[pos++] = (char) delta;
+        } else {
+            pos = writeEscaped(pos, first);
+        }
+        writeIdx += Long.bitCount(bits);
+        lastIndex = idx + 63 - Long.numberOfLeadingZeros(bits);
+        bits = clearLowestBit(bits);
+        for (int i = 0; i < 64; i += INT_LANES) {
+            long groupBits = (bits >>> i) & GROUP_MASK;
+            IntVector positions = LANE_INDEXES.add(i).compress(VectorMask.fromLong(SPECIES_512, groupBits));
+            IntVector preceding = IntVector.broadcast(SPECIES_512, prev).slice(INT_LANES - 1, positions);
+            ((ShortVector) positions.sub(preceding).convertShape(I2S, ShortVector.SPECIES_256, 0)).intoCharArray(deltas, pos);
+            if (groupBits != 0) {
+                pos += Long.bitCount(groupBits);
+                prev = i + 63 - Long.numberOfLeadingZeros(groupBits);
+            }
+        }
+        writePos = pos;
+    }
+
+    private static long clearLowestBit(long bits) {
+        return bits & (bits - 1);
+    }
+
+    private int writeEscaped(int pos, int index) {
+        deltas[pos] = ESCAPE;
+        deltas[pos + 1] = (char) (index >>> 16);
+        deltas[pos + 2] = (char) index;
+        return pos + 3;
+    }
+
+    @Override
+    public void advance() {
+        readIdx++;
+        decodeNext();
+    }
+
+    private void decodeNext() {
+        char delta = deltas[readPos++];
+        current = delta != ESCAPE ? current + delta : readEscaped();
+    }
+
+    private int readEscaped() {
+        int index = deltas[readPos] << 16 | deltas[readPos + 1];
+        readPos += 2;
+        return index;
+    }
+
+    @Override
+    public int getAndAdvance() {
+        assert readIdx <= writeIdx;
+        int index = current;
+        advance();
+        return index;
+    }
+
+    @Override
+    public int getLast() {
+        return lastIndex;
+    }
+
+    @Override
+    public int advanceAndGet() {
+        assert readIdx + 1 <= writeIdx;
+        advance();
+        return current;
+    }
+
+    @Override
+    public int peek() {
+        assert readIdx <= writeIdx;
+        return current;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return writeIdx > readIdx;
+    }
+
+    @Override
+    public boolean isEnd() {
+        return writeIdx == readIdx;
+    }
+
+    @Override
+    public boolean isPastEnd() {
+        return readIdx > writeIdx;
+    }
+
+    @Override
+    public void finish() {
+        // The sentinel plays the same role as in BitIndexes.finish(), so it's the first index. It is written as an
+        // absolute index, so it doesn't depend on the last index.
+        writeEscaped(writePos, writeIdx == 0 ? 0 : firstIndex());
+        readPos = 0;
+        current = 0;
+        decodeNext();
+    }
+
+    private int firstIndex() {
+        // The first index is stored as its distance from 0, or escaped if it doesn't fit in 16 bits.
+        char delta = deltas[0];
+        return delta != ESCAPE ? delta : deltas[1] << 16 | deltas[2];
+    }
+
+    @Override
+    public void append(BitIndexes other) {
+        for (int i = 0; i < other.size(); i++) {
+            appendIndex(other.get(i));
+        }
+        writeIdx += other.size();
+    }
+
+    private void appendIndex(int index) {
+        int delta = index - lastIndex;
+        if (delta < ESCAPE) {
+            deltas[writePos++] = (char) delta;
+        } else {
+            writePos = writeEscaped(writePos, index);
+        }
+        lastIndex = index;
+    }
+
+    @Override
+    public int size() {
+        return writeIdx;
+    }
+
+    @Override
+    public int position() {
+        return readIdx;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    void resize(int capacity) {
+        allocate(capacity);
+        reset();
+    }
+
+    private void allocate(int capacity) {
+        // There is at most one index per byte, and an escaped index takes three entries. Apart from the first index,
+        // which can be escaped regardless of its distance from zero, an index is escaped at most once per 64 KiB.
+        // The sentinel takes another three entries, and up to a vector of entries is written past the last one.
+        this.capacity = capacity;
+        this.deltas = new char[capacity + 2 * (capacity / ESCAPE) + 3 + 3 + INT_LANES];
+    }
+
+    @Override
+    public void reset() {
+        writeIdx = 0;
+        writePos = 0;
+        lastIndex = 0;
+        readIdx = 0;
+        readPos = 0;
+        current = 0;
+    }
+}
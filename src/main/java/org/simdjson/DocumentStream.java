@@ -0,0 +1,193 @@
+package org.simdjson;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+
+class DocumentStream<T> implements Iterator<T> {
+
+    private final StructuralIndexer indexer;
+    private final BitIndexes bitIndexes;
+    private final DocumentWalker<T> walker;
+    private final MemorySegment input;
+    private final byte[] inputArray;
+    private final int batchSize;
+    private byte[] windowBuffer;
+
+    // These are used only in the pipelined mode, where the next batch is indexed in the background while documents
+    // from the current one are walked. The background batch always goes to the spare bit indexes and window buffer,
+    // which are swapped with the current ones once the batch is taken over.
+    private final Executor executor;
+    private final StructuralIndexer spareIndexer;
+    private final BitIndexes spareBitIndexes;
+    private byte[] spareWindowBuffer;
+    private CompletableFuture<Batch> nextBatch;
+
+    private Batch batch;
+    private int documentIdx;
+
+    DocumentStream(StructuralIndexer indexer, BitIndexes bitIndexes, byte[] windowBuffer, DocumentWalker<T> walker,
+                   MemorySegment input, int batchSize) {
+        this(indexer, bitIndexes, windowBuffer, walker, input, batchSize, null, null, null, null);
+    }
+
+    DocumentStream(StructuralIndexer indexer, BitIndexes bitIndexes, byte[] windowBuffer, DocumentWalker<T> walker,
+                   MemorySegment input, int batchSize, Executor executor, StructuralIndexer spareIndexer,
+                   BitIndexes spareBitIndexes, byte[] spareWindowBuffer) {
+        this.indexer = indexer;
+        this.bitIndexes = bitIndexes;
+        this.windowBuffer = windowBuffer;
+        this.walker = walker;
+        this.input = input;
+        this.inputArray = input.heapBase().orElse(null) instanceof byte[] array ? array : null;
+        this.batchSize = batchSize;
+        this.executor = executor;
+        this.spareIndexer = spareIndexer;
+        this.spareBitIndexes = spareBitIndexes;
+        this.spareWindowBuffer = spareWindowBuffer;
+        this.batch = indexBatch(0, indexer, bitIndexes, windowBuffer);
+        scheduleNextBatch();
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (documentIdx == batch.documentCount()) {
+            if (batch.last()) {
+                return false;
+            }
+            if (executor == null) {
+                batch = indexBatch(batch.nextOffset(), indexer, bitIndexes, windowBuffer);
+            } else {
+                takeOverNextBatch();
+                scheduleNextBatch();
+            }
+            documentIdx = 0;
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more documents in the stream.");
+        }
+        int end = batch.documentEnds()[documentIdx++];
+        int len = end < bitIndexes.size() ? bitIndexes.get(end) : batch.end();
+        bitIndexes.startDocument(end);
+        try {
+            return walker.walk(batch.buffer(), len);
+        } finally {
+            bitIndexes.endDocument();
+        }
+    }
+
+    void awaitBackgroundIndexing() {
+        if (nextBatch != null) {
+            nextBatch.exceptionally(ex -> null).join();
+        }
+    }
+
+    private void scheduleNextBatch() {
+        if (executor == null || batch.last()) {
+            nextBatch = null;
+            return;
+        }
+        long offset = batch.nextOffset();
+        byte[] buffer = spareWindowBuffer;
+        nextBatch = CompletableFuture.supplyAsync(() -> indexBatch(offset, spareIndexer, spareBitIndexes, buffer), executor);
+    }
+
+    private void takeOverNextBatch() {
+        try {
+            batch = nextBatch.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+        bitIndexes.swap(spareBitIndexes);
+        byte[] tmp = windowBuffer;
+        windowBuffer = spareWindowBuffer;
+        spareWindowBuffer = tmp;
+    }
+
+    private Batch indexBatch(long offset, StructuralIndexer indexer, BitIndexes bitIndexes, byte[] windowBuffer) {
+        long remaining = input.byteSize() - offset;
+        boolean last = remaining <= batchSize;
+        int len = last ? (int) remaining : alignToCharBoundary(offset, batchSize);
+        byte[] buffer;
+        int start;
+        if (inputArray != null) {
+            // Heap input is indexed in place. Only off-heap input is copied into the window buffer.
+            buffer = inputArray;
+            start = (int) (input.address() + offset);
+        } else {
+            MemorySegment.copy(input, JAVA_BYTE, offset, windowBuffer, 0, len);
+            buffer = windowBuffer;
+            start = 0;
+        }
+        indexer.index(buffer, start, len, !last);
+        return frameDocuments(buffer, start, start + len, offset, last, bitIndexes);
+    }
+
+    private int alignToCharBoundary(long offset, int len) {
+        // Cutting a multibyte character in half would make UTF-8 validation of the window fail.
+        for (int i = 0; i < 3 && isContinuationByte(input.get(JAVA_BYTE, offset + len)); i++) {
+            len--;
+        }
+        return len;
+    }
+
+    private static boolean isContinuationByte(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    private Batch frameDocuments(byte[] buffer, int start, int end, long offset, boolean last, BitIndexes bitIndexes) {
+        int count = bitIndexes.size();
+        int[] documentEnds = new int[16];
+        int documentCount = 0;
+        int idx = 0;
+        while (idx < count) {
+            int documentStart = idx;
+            int depth = 0;
+            do {
+                switch (buffer[bitIndexes.get(idx++)]) {
+                    case '{', '[' -> depth++;
+                    case '}', ']' -> depth--;
+                }
+            } while (depth > 0 && idx < count);
+
+            // Unless the window is the last one, the document at its end might continue in the next window. The only
+            // exceptions are a closed object or array, since a closing bracket cannot be a part of a longer token, and
+            // an unmatched closing bracket, which is invalid anyway.
+            boolean complete = idx < count || last || depth < 0 || (depth == 0 && idx - documentStart > 1);
+            if (!complete) {
+                if (documentStart == 0) {
+                    throw new JsonParsingException("The document is too large. It does not fit in a batch of " + batchSize + " bytes.");
+                }
+                long nextOffset = offset + bitIndexes.get(documentStart) - start;
+                return new Batch(buffer, end, documentEnds, documentCount, false, nextOffset);
+            }
+            if (documentCount == documentEnds.length) {
+                documentEnds = Arrays.copyOf(documentEnds, documentCount * 2);
+            }
+            documentEnds[documentCount++] = idx;
+        }
+        return new Batch(buffer, end, documentEnds, documentCount, last, offset + end - start);
+    }
+
+    private record Batch(byte[] buffer, int end, int[] documentEnds, int documentCount, boolean last, long nextOffset) {
+    }
+
+    interface DocumentWalker<T> {
+
+        T walk(byte[] buffer, int len);
+    }
+}
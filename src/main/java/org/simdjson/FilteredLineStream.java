@@ -0,0 +1,131 @@
+package org.simdjson;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+
+// Iterates over the lines of newline-delimited JSON that contain a pattern. The pattern is searched for in the raw bytes
+// of the whole input, and only the lines with an occurrence are parsed, so the lines without one are never validated
+// or indexed. The match isn't aware of the JSON structure, so the returned documents are only candidates that the
+// caller has to check with the actual predicate. An input that isn't a byte array is searched through a heap buffer,
+// which holds a window of it at a time, and the matching lines are parsed directly from the input.
+class FilteredLineStream<T> implements Iterator<T> {
+
+    private static final SubstringFinder NEWLINE_FINDER = new SubstringFinder(new byte[]{'\n'});
+
+    private final SubstringFinder finder;
+    private final LineParser<T> lineParser;
+    private final SegmentLineParser<T> segmentLineParser;
+    private final byte[] buffer;
+    private final MemorySegment input;
+    private final int end;
+
+    private int pos;
+    private int lineStart = -1;
+    private int lineEnd;
+    // Only used for segments, where the search window can start in the middle of a line.
+    private int nextLineStart;
+
+    FilteredLineStream(SubstringFinder finder, LineParser<T> lineParser, byte[] buffer, int offset, int len) {
+        this.finder = finder;
+        this.lineParser = lineParser;
+        this.segmentLineParser = null;
+        this.buffer = buffer;
+        this.input = null;
+        this.pos = offset;
+        this.end = offset + len;
+    }
+
+    FilteredLineStream(SubstringFinder finder, SegmentLineParser<T> segmentLineParser, MemorySegment input, int len,
+                       byte[] searchBuffer) {
+        this.finder = finder;
+        this.lineParser = null;
+        this.segmentLineParser = segmentLineParser;
+        this.buffer = searchBuffer;
+        this.input = input;
+        this.pos = 0;
+        this.end = len;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (lineStart >= 0) {
+            return true;
+        }
+        if (pos >= end) {
+            return false;
+        }
+        if (input != null) {
+            return findInSegment();
+        }
+        int match = finder.indexOf(buffer, pos, end);
+        if (match < 0) {
+            pos = end;
+            return false;
+        }
+        // The lines before the match were skipped without being looked at, so the start of the matching line has to
+        // be found backwards.
+        lineStart = match;
+        while (lineStart > pos && buffer[lineStart - 1] != '\n') {
+            lineStart--;
+        }
+        int newline = NEWLINE_FINDER.indexOf(buffer, match + finder.length(), end);
+        lineEnd = newline < 0 ? end : newline;
+        pos = newline < 0 ? end : newline + 1;
+        return true;
+    }
+
+    private boolean findInSegment() {
+        while (true) {
+            int windowLength = Math.min(buffer.length, end - pos);
+            MemorySegment.copy(input, JAVA_BYTE, pos, buffer, 0, windowLength);
+            int match = finder.indexOf(buffer, 0, windowLength);
+            if (match >= 0) {
+                // Only the matching line is scanned for its boundaries, and it's going to be parsed anyway.
+                match += pos;
+                lineStart = match;
+                while (lineStart > nextLineStart && input.get(JAVA_BYTE, lineStart - 1) != '\n') {
+                    lineStart--;
+                }
+                lineEnd = match + finder.length();
+                while (lineEnd < end && input.get(JAVA_BYTE, lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                pos = lineEnd == end ? end : lineEnd + 1;
+                nextLineStart = pos;
+                return true;
+            }
+            if (pos + windowLength == end) {
+                pos = end;
+                return false;
+            }
+            // An occurrence might cross the end of the window, so the next one overlaps it.
+            pos += windowLength - finder.length() + 1;
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more lines containing the pattern.");
+        }
+        int start = lineStart;
+        lineStart = -1;
+        if (input != null) {
+            return segmentLineParser.parse(input.asSlice(start, lineEnd - start));
+        }
+        return lineParser.parse(buffer, start, lineEnd - start);
+    }
+
+    interface LineParser<T> {
+
+        T parse(byte[] buffer, int offset, int len);
+    }
+
+    interface SegmentLineParser<T> {
+
+        T parse(MemorySegment line);
+    }
+}
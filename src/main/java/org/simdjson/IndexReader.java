@@ -0,0 +1,26 @@
+package org.simdjson;
+
+// The part of a structural index that the iterators use. They only walk it forward, so it can be implemented by
+// encodings without random access, like CompactBitIndexes.
+interface IndexReader {
+
+    void advance();
+
+    int getAndAdvance();
+
+    int getLast();
+
+    int advanceAndGet();
+
+    int peek();
+
+    boolean hasNext();
+
+    boolean isEnd();
+
+    boolean isPastEnd();
+
+    int size();
+
+    int position();
+}
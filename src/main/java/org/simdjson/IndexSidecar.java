@@ -0,0 +1,103 @@
+package org.simdjson;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.zip.CRC32C;
+
+import static java.lang.foreign.ValueLayout.JAVA_INT_UNALIGNED;
+import static java.lang.foreign.ValueLayout.JAVA_LONG_UNALIGNED;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+// A file that holds the structural indexes of a JSON file, so that stage 1 can be skipped when the same file is parsed
+// again. The indexes are stored after a header with the length and the checksum of the JSON file they were produced
+// for, as well as the checksum of the indexes themselves. Computing a checksum is much cheaper than stage 1, and it
+// detects files that were modified or corrupted since the indexes were written. It doesn't prove that the indexes were
+// produced by stage 1, so they are also checked to be increasing positions within the input when they are loaded.
+class IndexSidecar {
+
+    static final ValueLayout.OfInt INDEX_LAYOUT = JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private static final ValueLayout.OfLong LENGTH_LAYOUT = JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final int MAGIC = 0x58494A53; // "SJIX"
+    private static final int VERSION = 1;
+    private static final long MAGIC_OFFSET = 0;
+    private static final long VERSION_OFFSET = 4;
+    private static final long INPUT_LENGTH_OFFSET = 8;
+    private static final long INPUT_CHECKSUM_OFFSET = 16;
+    private static final long INDEXES_CHECKSUM_OFFSET = 20;
+    private static final long COUNT_OFFSET = 24;
+    private static final long HEADER_SIZE = 32;
+
+    static void write(Path indexPath, MemorySegment input, BitIndexes bitIndexes) throws IOException {
+        // The file is written next to the target and then moved over it, so that concurrent readers never see
+        // a partially written file.
+        int count = bitIndexes.size();
+        long size = HEADER_SIZE + (long) Integer.BYTES * count;
+        Path dir = indexPath.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, indexPath.getFileName().toString(), ".tmp");
+        try {
+            try (Arena arena = Arena.ofConfined(); FileChannel channel = FileChannel.open(tmp, READ, WRITE)) {
+                MemorySegment file = channel.map(READ_WRITE, 0, size, arena);
+                bitIndexes.exportTo(file, HEADER_SIZE);
+                file.set(INDEX_LAYOUT, MAGIC_OFFSET, MAGIC);
+                file.set(INDEX_LAYOUT, VERSION_OFFSET, VERSION);
+                file.set(LENGTH_LAYOUT, INPUT_LENGTH_OFFSET, input.byteSize());
+                file.set(INDEX_LAYOUT, INPUT_CHECKSUM_OFFSET, checksum(input));
+                file.set(INDEX_LAYOUT, INDEXES_CHECKSUM_OFFSET, checksum(file.asSlice(HEADER_SIZE)));
+                file.set(INDEX_LAYOUT, COUNT_OFFSET, count);
+                file.force();
+            }
+            Files.move(tmp, indexPath, REPLACE_EXISTING, ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    static boolean read(Path indexPath, MemorySegment input, BitIndexes bitIndexes) throws IOException {
+        // Returns false if the file doesn't exist or doesn't match the input, in which case stage 1 has to be run.
+        try (Arena arena = Arena.ofConfined(); FileChannel channel = FileChannel.open(indexPath, READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                return false;
+            }
+            MemorySegment file = channel.map(READ_ONLY, 0, size, arena);
+            long len = input.byteSize();
+            if (file.get(INDEX_LAYOUT, MAGIC_OFFSET) != MAGIC
+                    || file.get(INDEX_LAYOUT, VERSION_OFFSET) != VERSION
+                    || file.get(LENGTH_LAYOUT, INPUT_LENGTH_OFFSET) != len) {
+                return false;
+            }
+            // There is at most one structural character per byte of the input, so the indexes always fit.
+            int count = file.get(INDEX_LAYOUT, COUNT_OFFSET);
+            if (count < 0 || count > len || size != HEADER_SIZE + (long) Integer.BYTES * count) {
+                return false;
+            }
+            MemorySegment indexes = file.asSlice(HEADER_SIZE);
+            if (file.get(INDEX_LAYOUT, INDEXES_CHECKSUM_OFFSET) != checksum(indexes)
+                    || file.get(INDEX_LAYOUT, INPUT_CHECKSUM_OFFSET) != checksum(input)) {
+                return false;
+            }
+            return bitIndexes.importFrom(file, HEADER_SIZE, count, (int) len);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private static int checksum(MemorySegment segment) {
+        CRC32C crc = new CRC32C();
+        crc.update(segment.asByteBuffer());
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,16 @@
+package org.simdjson;
+
+// The part of a structural index that stage 1 uses. The bits of each 64-byte block are written in order, and finish()
+// is called once the whole input has been indexed.
+interface IndexWriter {
+
+    void write(int blockIndex, long bits);
+
+    void writeWithCompress(int blockIndex, long bits);
+
+    void append(BitIndexes other);
+
+    void finish();
+
+    void reset();
+}
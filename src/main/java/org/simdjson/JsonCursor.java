@@ -0,0 +1,200 @@
+package org.simdjson;
+
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.simdjson.Tape.DOUBLE;
+import static org.simdjson.Tape.FALSE_VALUE;
+import static org.simdjson.Tape.INT64;
+import static org.simdjson.Tape.NULL_VALUE;
+import static org.simdjson.Tape.START_ARRAY;
+import static org.simdjson.Tape.START_OBJECT;
+import static org.simdjson.Tape.STRING;
+import static org.simdjson.Tape.TRUE_VALUE;
+
+// A mutable, reusable position on the tape. Unlike JsonValue, moving around doesn't allocate anything (apart from
+// growing the stack of enclosing scopes the first time a deeper document is walked), so it can be used in hot loops.
+// Keys are compared as raw bytes. Within an object, the cursor points at the value of a field, and the field's key
+// is available through keyEquals() and getKey(). Like a JsonValue, it's valid only until the next document is parsed.
+public class JsonCursor {
+
+    private Tape tape;
+    private byte[] stringBuffer;
+
+    private int tapeIdx;
+    private int keyIdx = -1;
+    // The tape indexes of the enclosing arrays and objects.
+    private int[] scopes = new int[16];
+    private int depth;
+
+    public void reset(JsonValue value) {
+        value.moveCursor(this);
+    }
+
+    void reset(Tape tape, byte[] stringBuffer, int tapeIdx) {
+        this.tape = tape;
+        this.stringBuffer = stringBuffer;
+        this.tapeIdx = tapeIdx;
+        this.keyIdx = -1;
+        this.depth = 0;
+    }
+
+    public boolean descend() {
+        // Moves to the first element of the current array, or to the value of the first field of the current object.
+        // Returns false, without moving, for scalars and for empty arrays and objects.
+        char type = tape.getType(tapeIdx);
+        if ((type != START_ARRAY && type != START_OBJECT) || tape.getMatchingBraceIndex(tapeIdx) == tapeIdx + 2) {
+            return false;
+        }
+        pushScope();
+        if (type == START_OBJECT) {
+            keyIdx = tapeIdx + 1;
+            tapeIdx = keyIdx + 1;
+        } else {
+            keyIdx = -1;
+            tapeIdx++;
+        }
+        return true;
+    }
+
+    public boolean descendToField(byte[] name) {
+        // Moves to the value of the field with the given name in the current object. Returns false, without moving,
+        // if there is no such field or the current value isn't an object.
+        if (tape.getType(tapeIdx) != START_OBJECT) {
+            return false;
+        }
+        int idx = tapeIdx + 1;
+        int endIdx = tape.getMatchingBraceIndex(tapeIdx) - 1;
+        while (idx < endIdx) {
+            int valIdx = idx + 1;
+            if (stringEquals(idx, name)) {
+                pushScope();
+                keyIdx = idx;
+                tapeIdx = valIdx;
+                return true;
+            }
+            idx = tape.computeNextIndex(valIdx);
+        }
+        return false;
+    }
+
+    public boolean next() {
+        // Moves to the next element of the enclosing array, or to the value of the next field of the enclosing object.
+        // Returns false, without moving, if the current value is the last one.
+        if (depth == 0) {
+            return false;
+        }
+        int nextIdx = tape.computeNextIndex(tapeIdx);
+        if (nextIdx >= tape.getMatchingBraceIndex(scopes[depth - 1]) - 1) {
+            return false;
+        }
+        if (keyIdx >= 0) {
+            keyIdx = nextIdx;
+            tapeIdx = nextIdx + 1;
+        } else {
+            tapeIdx = nextIdx;
+        }
+        return true;
+    }
+
+    public void ascend() {
+        // Moves back to the enclosing array or object.
+        if (depth == 0) {
+            throw new IllegalStateException("The cursor is at the root of the document.");
+        }
+        tapeIdx = scopes[--depth];
+        keyIdx = depth > 0 && tape.getType(scopes[depth - 1]) == START_OBJECT ? tapeIdx - 1 : -1;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public boolean isField() {
+        return keyIdx >= 0;
+    }
+
+    public boolean keyEquals(byte[] name) {
+        return keyIdx >= 0 && stringEquals(keyIdx, name);
+    }
+
+    public String getKey() {
+        if (keyIdx < 0) {
+            throw new IllegalStateException("The cursor doesn't point at a field of an object.");
+        }
+        return getString(keyIdx);
+    }
+
+    public boolean isArray() {
+        return tape.getType(tapeIdx) == START_ARRAY;
+    }
+
+    public boolean isObject() {
+        return tape.getType(tapeIdx) == START_OBJECT;
+    }
+
+    public boolean isLong() {
+        return tape.getType(tapeIdx) == INT64;
+    }
+
+    public boolean isDouble() {
+        return tape.getType(tapeIdx) == DOUBLE;
+    }
+
+    public boolean isBoolean() {
+        char type = tape.getType(tapeIdx);
+        return type == TRUE_VALUE || type == FALSE_VALUE;
+    }
+
+    public boolean isNull() {
+        return tape.getType(tapeIdx) == NULL_VALUE;
+    }
+
+    public boolean isString() {
+        return tape.getType(tapeIdx) == STRING;
+    }
+
+    public long asLong() {
+        return tape.getInt64Value(tapeIdx);
+    }
+
+    public double asDouble() {
+        return tape.getDouble(tapeIdx);
+    }
+
+    public boolean asBoolean() {
+        return tape.getType(tapeIdx) == TRUE_VALUE;
+    }
+
+    public String asString() {
+        return getString(tapeIdx);
+    }
+
+    public boolean stringEquals(byte[] bytes) {
+        return isString() && stringEquals(tapeIdx, bytes);
+    }
+
+    public int getSize() {
+        return tape.getScopeCount(tapeIdx);
+    }
+
+    private void pushScope() {
+        if (depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth * 2);
+        }
+        scopes[depth++] = tapeIdx;
+    }
+
+    private boolean stringEquals(int idx, byte[] bytes) {
+        int stringBufferIdx = (int) tape.getValue(idx);
+        int len = IntegerUtils.toInt(stringBuffer, stringBufferIdx);
+        int from = stringBufferIdx + Integer.BYTES;
+        return Arrays.equals(bytes, 0, bytes.length, stringBuffer, from, from + len);
+    }
+
+    private String getString(int idx) {
+        int stringBufferIdx = (int) tape.getValue(idx);
+        int len = IntegerUtils.toInt(stringBuffer, stringBufferIdx);
+        return new String(stringBuffer, stringBufferIdx + Integer.BYTES, len, UTF_8);
+    }
+}
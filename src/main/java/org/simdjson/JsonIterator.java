@@ -1,7 +1,5 @@
 package org.simdjson;
 
-import java.util.Arrays;
-
 class JsonIterator {
 
     private static final int OBJECT_BEGIN = 0;
@@ -14,13 +12,17 @@ class JsonIterator {
     private static final int ARRAY_VALUE = 7;
 
     private final TapeBuilder tapeBuilder;
-    private final BitIndexes indexer;
+    private final IndexReader indexer;
     private final boolean[] isArray;
 
-    JsonIterator(BitIndexes indexer, byte[] stringBuffer, int capacity, int maxDepth, int padding) {
+    JsonIterator(IndexReader indexer, Tape tape, byte[] stringBuffer, int maxDepth, int padding, VectorWidth vectorWidth) {
         this.indexer = indexer;
         this.isArray = new boolean[maxDepth];
-        this.tapeBuilder = new TapeBuilder(capacity, maxDepth, padding, stringBuffer);
+        this.tapeBuilder = new TapeBuilder(tape, maxDepth, padding, stringBuffer, vectorWidth);
+    }
+
+    void setStringBuffer(byte[] stringBuffer) {
+        tapeBuilder.setStringBuffer(stringBuffer);
     }
 
     JsonValue walkDocument(byte[] buffer, int len) {
@@ -200,7 +202,8 @@ class JsonIterator {
     }
 
     void reset() {
+        // The isArray flags don't need to be cleared, because the flag for a depth is always set when a scope at that
+        // depth is opened, before it's read. Clearing them would cost as much as parsing a tiny document.
         tapeBuilder.reset();
-        Arrays.fill(isArray, false);
     }
 }
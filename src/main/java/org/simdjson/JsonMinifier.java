@@ -0,0 +1,136 @@
+package org.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+// Removes whitespace outside strings. Strings are found in the same way as in StructuralIndexer, i.e., with bitmasks of
+// quotes and backslashes computed for blocks of 64 bytes. The input isn't validated, so invalid JSON is minified as if
+// it were valid. The state at the end of a block is carried over, so an input can be minified in parts.
+class JsonMinifier {
+
+    private static final int STEP_SIZE = 64;
+    private static final VectorSpecies<Byte> SPECIES = VectorUtils.BYTE_SPECIES;
+    private static final byte BACKSLASH = (byte) '\\';
+    private static final byte QUOTE = (byte) '"';
+    private static final long EVEN_BITS_MASK = 0x5555555555555555L;
+    private static final long ODD_BITS_MASK = ~EVEN_BITS_MASK;
+    private static final long BACKSLASHES = SwarUtils.broadcast(BACKSLASH);
+    private static final long QUOTES = SwarUtils.broadcast(QUOTE);
+    private static final long SPACES = SwarUtils.broadcast(' ');
+    private static final long TABS = SwarUtils.broadcast('\t');
+    private static final long LINE_FEEDS = SwarUtils.broadcast('\n');
+    private static final long CARRIAGE_RETURNS = SwarUtils.broadcast('\r');
+    // For each combination of eight bits, a mask with all bits of the corresponding bytes set.
+    private static final long[] BYTE_MASKS = new long[256];
+
+    static {
+        for (int bits = 0; bits < BYTE_MASKS.length; bits++) {
+            for (int i = 0; i < Long.BYTES; i++) {
+                if ((bits & (1 << i)) != 0) {
+                    BYTE_MASKS[bits] |= 0xFFL << (i * Byte.SIZE);
+                }
+            }
+        }
+    }
+
+    private final byte[] lastBlock = new byte[STEP_SIZE];
+
+    private long prevInString;
+    private long prevEscaped;
+
+    int minify(byte[] in, int start, int length, byte[] out, int outStart) {
+        // The output has to be at least as long as the input, because the kept bytes are stored eight at a time, and
+        // the unused ones are overwritten afterwards. The returned value is the number of bytes written to the output.
+        boolean swar = VectorUtils.useSwar();
+        int loopBound = start + length / STEP_SIZE * STEP_SIZE;
+        int pos = outStart;
+        for (int offset = start; offset < loopBound; offset += STEP_SIZE) {
+            long removed = swar ? removedSwar(in, offset) : removedVector(in, offset);
+            if (removed == 0) {
+                System.arraycopy(in, offset, out, pos, STEP_SIZE);
+                pos += STEP_SIZE;
+            } else {
+                long kept = ~removed;
+                for (int i = 0; i < STEP_SIZE; i += Long.BYTES) {
+                    int keptBits = (int) (kept >>> i) & 0xFF;
+                    long word = SwarUtils.load(in, offset + i);
+                    // Gathers the kept bytes at the beginning of the word (PEXT on x86).
+                    SwarUtils.store(out, pos, Long.compress(word, BYTE_MASKS[keptBits]));
+                    pos += Integer.bitCount(keptBits);
+                }
+            }
+        }
+
+        int remaining = start + length - loopBound;
+        if (remaining > 0) {
+            // The padding after the input is whitespace, and it's removed like any other.
+            Arrays.fill(lastBlock, (byte) ' ');
+            System.arraycopy(in, loopBound, lastBlock, 0, remaining);
+            long kept = ~(swar ? removedSwar(lastBlock, 0) : removedVector(lastBlock, 0)) & ((1L << remaining) - 1);
+            while (kept != 0) {
+                out[pos++] = lastBlock[Long.numberOfTrailingZeros(kept)];
+                kept &= kept - 1;
+            }
+        }
+        return pos - outStart;
+    }
+
+    private long removedVector(byte[] buffer, int offset) {
+        long backslash = 0;
+        long quote = 0;
+        long whitespace = 0;
+        for (int i = 0; i < STEP_SIZE; i += SPECIES.length()) {
+            ByteVector chunk = ByteVector.fromArray(SPECIES, buffer, offset + i);
+            backslash |= chunk.eq(BACKSLASH).toLong() << i;
+            quote |= chunk.eq(QUOTE).toLong() << i;
+            whitespace |= chunk.eq((byte) ' ')
+                    .or(chunk.eq((byte) '\t'))
+                    .or(chunk.eq((byte) '\n'))
+                    .or(chunk.eq((byte) '\r'))
+                    .toLong() << i;
+        }
+        return whitespace & ~inString(backslash, quote);
+    }
+
+    private long removedSwar(byte[] buffer, int offset) {
+        long backslash = 0;
+        long quote = 0;
+        long whitespace = 0;
+        for (int i = 0; i < STEP_SIZE / Long.BYTES; i++) {
+            long word = SwarUtils.load(buffer, offset + i * Long.BYTES);
+            int shift = i * Long.BYTES;
+            backslash |= SwarUtils.toBitmask(SwarUtils.eq(word, BACKSLASHES)) << shift;
+            quote |= SwarUtils.toBitmask(SwarUtils.eq(word, QUOTES)) << shift;
+            long whitespaceBits = SwarUtils.eq(word, SPACES) | SwarUtils.eq(word, TABS)
+                    | SwarUtils.eq(word, LINE_FEEDS) | SwarUtils.eq(word, CARRIAGE_RETURNS);
+            whitespace |= SwarUtils.toBitmask(whitespaceBits) << shift;
+        }
+        return whitespace & ~inString(backslash, quote);
+    }
+
+    private long inString(long backslash, long quote) {
+        // The same as string scanning in StructuralIndexer. Quotes are never whitespace, so it doesn't matter that
+        // the closing ones aren't included in the returned mask.
+        long escaped;
+        if (backslash == 0) {
+            escaped = prevEscaped;
+            prevEscaped = 0;
+        } else {
+            backslash &= ~prevEscaped;
+            long followsEscape = backslash << 1 | prevEscaped;
+            long oddSequenceStarts = backslash & ODD_BITS_MASK & ~followsEscape;
+
+            long sequencesStartingOnEvenBits = oddSequenceStarts + backslash;
+            prevEscaped = ((oddSequenceStarts >>> 1) + (backslash >>> 1) + ((oddSequenceStarts & backslash) & 1)) >>> 63;
+
+            long invertMask = sequencesStartingOnEvenBits << 1;
+            escaped = (EVEN_BITS_MASK ^ invertMask) & followsEscape;
+        }
+
+        long inString = StructuralIndexer.prefixXor(quote & ~escaped) ^ prevInString;
+        prevInString = inString >> 63;
+        return inString;
+    }
+}
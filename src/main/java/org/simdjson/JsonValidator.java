@@ -0,0 +1,242 @@
+package org.simdjson;
+
+import java.util.Arrays;
+
+import static org.simdjson.CharacterUtils.isStructuralOrWhitespace;
+
+// The state machine of JsonIterator without the tape. It performs the same checks, so a document is valid if and only
+// if it can be parsed, but strings aren't unescaped, floating-point numbers aren't converted, and nothing is stored.
+class JsonValidator {
+
+    private static final int OBJECT_BEGIN = 0;
+    private static final int ARRAY_BEGIN = 1;
+    private static final int DOCUMENT_END = 2;
+    private static final int OBJECT_FIELD = 3;
+    private static final int OBJECT_CONTINUE = 4;
+    private static final int SCOPE_END = 5;
+    private static final int ARRAY_CONTINUE = 6;
+    private static final int ARRAY_VALUE = 7;
+    private static final byte SPACE = 0x20;
+
+    private final IndexReader indexer;
+    // Each entry is written when a container is entered, so it doesn't have to be cleared between documents.
+    private final boolean[] isArray;
+    private final int padding;
+    private final NumberParser numberParser = new NumberParser();
+    private final StringParser stringParser;
+
+    JsonValidator(IndexReader indexer, int maxDepth, int padding, VectorWidth vectorWidth) {
+        this.indexer = indexer;
+        this.isArray = new boolean[maxDepth];
+        this.padding = padding;
+        this.stringParser = new StringParser(vectorWidth);
+    }
+
+    void validateDocument(byte[] buffer, int len) {
+        if (indexer.isEnd()) {
+            throw new JsonParsingException("No structural element found.");
+        }
+
+        int depth = 0;
+        int state;
+
+        int idx = indexer.getAndAdvance();
+        switch (buffer[idx]) {
+            case '{' -> {
+                if (buffer[indexer.getLast()] != '}') {
+                    throw new JsonParsingException("Unclosed object. Missing '}' for starting '{'.");
+                }
+                if (buffer[indexer.peek()] == '}') {
+                    indexer.advance();
+                    state = DOCUMENT_END;
+                } else {
+                    state = OBJECT_BEGIN;
+                }
+            }
+            case '[' -> {
+                if (buffer[indexer.getLast()] != ']') {
+                    throw new JsonParsingException("Unclosed array. Missing ']' for starting '['.");
+                }
+                if (buffer[indexer.peek()] == ']') {
+                    indexer.advance();
+                    state = DOCUMENT_END;
+                } else {
+                    state = ARRAY_BEGIN;
+                }
+            }
+            default -> {
+                validateRootPrimitive(buffer, idx, len);
+                state = DOCUMENT_END;
+            }
+        }
+
+        while (state != DOCUMENT_END) {
+            if (state == OBJECT_BEGIN) {
+                depth++;
+                isArray[depth] = false;
+
+                int keyIdx = indexer.getAndAdvance();
+                if (buffer[keyIdx] != '"') {
+                    throw new JsonParsingException("Object does not start with a key");
+                }
+                stringParser.validateString(buffer, keyIdx);
+                state = OBJECT_FIELD;
+            }
+
+            if (state == OBJECT_FIELD) {
+                if (buffer[indexer.getAndAdvance()] != ':') {
+                    throw new JsonParsingException("Missing colon after key in object");
+                }
+                idx = indexer.getAndAdvance();
+                switch (buffer[idx]) {
+                    case '{' -> {
+                        if (buffer[indexer.peek()] == '}') {
+                            indexer.advance();
+                            state = OBJECT_CONTINUE;
+                        } else {
+                            state = OBJECT_BEGIN;
+                        }
+                    }
+                    case '[' -> {
+                        if (buffer[indexer.peek()] == ']') {
+                            indexer.advance();
+                            state = OBJECT_CONTINUE;
+                        } else {
+                            state = ARRAY_BEGIN;
+                        }
+                    }
+                    default -> {
+                        validatePrimitive(buffer, idx);
+                        state = OBJECT_CONTINUE;
+                    }
+                }
+            }
+
+            if (state == OBJECT_CONTINUE) {
+                switch (buffer[indexer.getAndAdvance()]) {
+                    case ',' -> {
+                        int keyIdx = indexer.getAndAdvance();
+                        if (buffer[keyIdx] != '"') {
+                            throw new JsonParsingException("Key string missing at beginning of field in object");
+                        }
+                        stringParser.validateString(buffer, keyIdx);
+                        state = OBJECT_FIELD;
+                    }
+                    case '}' -> state = SCOPE_END;
+                    default -> throw new JsonParsingException("No comma between object fields");
+                }
+            }
+
+            if (state == SCOPE_END) {
+                depth--;
+                if (depth == 0) {
+                    state = DOCUMENT_END;
+                } else if (isArray[depth]) {
+                    state = ARRAY_CONTINUE;
+                } else {
+                    state = OBJECT_CONTINUE;
+                }
+            }
+
+            if (state == ARRAY_BEGIN) {
+                depth++;
+                isArray[depth] = true;
+                state = ARRAY_VALUE;
+            }
+
+            if (state == ARRAY_VALUE) {
+                idx = indexer.getAndAdvance();
+                switch (buffer[idx]) {
+                    case '{' -> {
+                        if (buffer[indexer.peek()] == '}') {
+                            indexer.advance();
+                            state = ARRAY_CONTINUE;
+                        } else {
+                            state = OBJECT_BEGIN;
+                        }
+                    }
+                    case '[' -> {
+                        if (buffer[indexer.peek()] == ']') {
+                            indexer.advance();
+                            state = ARRAY_CONTINUE;
+                        } else {
+                            state = ARRAY_BEGIN;
+                        }
+                    }
+                    default -> {
+                        validatePrimitive(buffer, idx);
+                        state = ARRAY_CONTINUE;
+                    }
+                }
+            }
+
+            if (state == ARRAY_CONTINUE) {
+                switch (buffer[indexer.getAndAdvance()]) {
+                    case ',' -> state = ARRAY_VALUE;
+                    case ']' -> state = SCOPE_END;
+                    default -> throw new JsonParsingException("Missing comma between array values");
+                }
+            }
+        }
+
+        if (!indexer.isEnd()) {
+            throw new JsonParsingException("More than one JSON value at the root of the document, or extra characters at the end of the JSON!");
+        }
+    }
+
+    private void validateRootPrimitive(byte[] buffer, int idx, int len) {
+        switch (buffer[idx]) {
+            case '"' -> stringParser.validateString(buffer, idx);
+            case 't' -> validateRootAtom(buffer, idx, len, "true");
+            case 'f' -> validateRootAtom(buffer, idx, len, "false");
+            case 'n' -> validateRootAtom(buffer, idx, len, "null");
+            case '-', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> validateRootNumber(buffer, idx, len);
+            default -> throw new JsonParsingException("Unrecognized primitive. Expected: string, number, 'true', 'false' or 'null'.");
+        }
+    }
+
+    private void validatePrimitive(byte[] buffer, int idx) {
+        switch (buffer[idx]) {
+            case '"' -> stringParser.validateString(buffer, idx);
+            case 't' -> validateAtom(buffer, idx, "true");
+            case 'f' -> validateAtom(buffer, idx, "false");
+            case 'n' -> validateAtom(buffer, idx, "null");
+            case '-', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> numberParser.validateNumber(buffer, idx);
+            default -> throw new JsonParsingException("Unrecognized primitive. Expected: string, number, 'true', 'false' or 'null'.");
+        }
+    }
+
+    private static void validateAtom(byte[] buffer, int idx, String atom) {
+        // A structural character always follows a value that isn't at the root, so the buffer can't end within
+        // the atom.
+        boolean valid = matches(buffer, idx, atom) && isStructuralOrWhitespace(buffer[idx + atom.length()]);
+        if (!valid) {
+            throw new JsonParsingException("Invalid value starting at " + idx + ". Expected '" + atom + "'.");
+        }
+    }
+
+    private static void validateRootAtom(byte[] buffer, int idx, int len, String atom) {
+        int end = idx + atom.length();
+        boolean valid = end <= len && matches(buffer, idx, atom) && (end == len || isStructuralOrWhitespace(buffer[end]));
+        if (!valid) {
+            throw new JsonParsingException("Invalid value starting at " + idx + ". Expected '" + atom + "'.");
+        }
+    }
+
+    private static boolean matches(byte[] buffer, int idx, String atom) {
+        for (int i = 0; i < atom.length(); i++) {
+            if (buffer[idx + i] != atom.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void validateRootNumber(byte[] buffer, int idx, int len) {
+        int remainingLen = len - idx;
+        byte[] copy = new byte[remainingLen + padding];
+        System.arraycopy(buffer, idx, copy, 0, remainingLen);
+        Arrays.fill(copy, remainingLen, remainingLen + padding, SPACE);
+        numberParser.validateNumber(copy, 0);
+    }
+}
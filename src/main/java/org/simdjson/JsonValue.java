@@ -66,6 +66,16 @@ public class JsonValue {
         return new ObjectIterator(tapeIdx);
     }
 
+    public JsonCursor cursor() {
+        JsonCursor cursor = new JsonCursor();
+        moveCursor(cursor);
+        return cursor;
+    }
+
+    void moveCursor(JsonCursor cursor) {
+        cursor.reset(tape, stringBuffer, tapeIdx);
+    }
+
     public long asLong() {
         return tape.getInt64Value(tapeIdx);
     }
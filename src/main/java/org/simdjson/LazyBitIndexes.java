@@ -0,0 +1,103 @@
+package org.simdjson;
+
+// Indexes the input in chunks only when the iterator runs out of indexes, so a query that finishes early never touches
+// the rest of the input. All reads go through methods that index the next chunks first if needed, so the indexes are
+// never read past the ones written, except after the last chunk, where the sentinel written by finish() takes over.
+// The methods that return an index also make the one after it available. The closing quote of a string isn't
+// a structural character, so only an index past the string proves that the string is closed. Otherwise, the rest of
+// the input is indexed, and stage 1 reports the unclosed string before the string parser reads past the input.
+class LazyBitIndexes extends BitIndexes {
+
+    private static final int BLOCK_SIZE = 64;
+
+    private final StructuralIndexer indexer;
+    private final int chunkSize;
+
+    private byte[] buffer;
+    private int start;
+    private int indexedEnd;
+    private int end;
+
+    LazyBitIndexes(int capacity, int chunkSize, VectorWidth vectorWidth) {
+        super(capacity);
+        this.indexer = new StructuralIndexer(this, vectorWidth);
+        this.chunkSize = chunkSize / BLOCK_SIZE * BLOCK_SIZE;
+    }
+
+    void init(byte[] buffer, int offset, int len) {
+        this.buffer = buffer;
+        this.start = offset;
+        this.indexedEnd = offset;
+        this.end = offset + len;
+        indexer.startChunks();
+    }
+
+    private void ensureAvailable(int count) {
+        while (size() - position() < count && indexedEnd < end) {
+            int length = Math.min(chunkSize, end - indexedEnd);
+            boolean last = indexedEnd + length == end;
+            // The array grows with the indexed part of the input rather than being sized for the whole of it upfront.
+            int required = size() + length + BLOCK_SIZE;
+            if (capacity() < required) {
+                grow(Math.max(required, 2 * capacity()));
+            }
+            indexer.indexChunk(buffer, indexedEnd, length, last);
+            indexedEnd += length;
+        }
+    }
+
+    @Override
+    public void advance() {
+        ensureAvailable(1);
+        super.advance();
+    }
+
+    @Override
+    public int getAndAdvance() {
+        ensureAvailable(2);
+        return super.getAndAdvance();
+    }
+
+    @Override
+    public int getLast() {
+        // Indexing the whole input only to find its last structural character would defeat the purpose, so the last
+        // non-whitespace byte is taken instead. If the input is valid, they are the same.
+        int idx = end - 1;
+        while (idx > start && isWhitespace(buffer[idx])) {
+            idx--;
+        }
+        return idx;
+    }
+
+    @Override
+    public int advanceAndGet() {
+        ensureAvailable(3);
+        return super.advanceAndGet();
+    }
+
+    @Override
+    public int peek() {
+        ensureAvailable(2);
+        return super.peek();
+    }
+
+    @Override
+    public boolean hasNext() {
+        ensureAvailable(1);
+        return super.hasNext();
+    }
+
+    @Override
+    public boolean isEnd() {
+        ensureAvailable(1);
+        return super.isEnd();
+    }
+
+    int indexedEnd() {
+        return indexedEnd;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+}
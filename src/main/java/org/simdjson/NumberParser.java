@@ -73,6 +73,48 @@ class NumberParser {
         }
     }
 
+    void validateNumber(byte[] buffer, int offset) {
+        // The same checks as in parseNumber, but floating-point numbers aren't converted, because the conversion never
+        // fails.
+        boolean negative = buffer[offset] == '-';
+
+        int currentIdx = negative ? offset + 1 : offset;
+
+        int digitsStartIdx = currentIdx;
+        DigitsParsingResult digitsParsingResult = parseDigits(buffer, currentIdx, 0);
+        long digits = digitsParsingResult.digits();
+        currentIdx = digitsParsingResult.currentIdx();
+        int digitCount = currentIdx - digitsStartIdx;
+        if (digitCount == 0) {
+            throw new JsonParsingException("Invalid number. Minus has to be followed by a digit.");
+        }
+        if ('0' == buffer[digitsStartIdx] && digitCount > 1) {
+            throw new JsonParsingException("Invalid number. Leading zeroes are not allowed.");
+        }
+
+        boolean floatingPointNumber = false;
+        if ('.' == buffer[currentIdx]) {
+            floatingPointNumber = true;
+            currentIdx++;
+            int firstIdxAfterPeriod = currentIdx;
+            currentIdx = skipDigits(buffer, currentIdx);
+            if (firstIdxAfterPeriod == currentIdx) {
+                throw new JsonParsingException("Invalid number. Decimal point has to be followed by a digit.");
+            }
+        }
+        if (isExponentIndicator(buffer[currentIdx])) {
+            floatingPointNumber = true;
+            currentIdx++;
+            currentIdx = exponentParser.parse(buffer, currentIdx, 0).currentIdx();
+        }
+        if (!isStructuralOrWhitespace(buffer[currentIdx])) {
+            throw new JsonParsingException("Number has to be followed by a structural character or whitespace.");
+        }
+        if (!floatingPointNumber && isOutOfLongRange(negative, digits, digitCount)) {
+            throw new JsonParsingException("Number value is out of long range ([" + Long.MIN_VALUE + ", " + Long.MAX_VALUE + "]).");
+        }
+    }
+
     byte parseByte(byte[] buffer, int len, int offset) {
         boolean negative = buffer[offset] == '-';
 
@@ -337,6 +379,15 @@ class NumberParser {
         return digitsParsingResult.of(digits, currentIdx);
     }
 
+    private static int skipDigits(byte[] buffer, int currentIdx) {
+        byte digit = convertCharacterToDigit(buffer[currentIdx]);
+        while (digit >= 0 && digit <= 9) {
+            currentIdx++;
+            digit = convertCharacterToDigit(buffer[currentIdx]);
+        }
+        return currentIdx;
+    }
+
     private static byte convertCharacterToDigit(byte b) {
         return (byte) (b - '0');
     }
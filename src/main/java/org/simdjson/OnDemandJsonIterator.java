@@ -17,18 +17,19 @@ class OnDemandJsonIterator {
         SKIP_DEPTH_PER_CHARACTER['}'] = -1;
     }
 
-    private final BitIndexes indexer;
+    private final IndexReader indexer;
     private final int padding;
-    private final StringParser stringParser = new StringParser();
+    private final StringParser stringParser;
     private final NumberParser numberParser = new NumberParser();
 
     private byte[] buffer;
     private int len;
     private int depth;
 
-    OnDemandJsonIterator(BitIndexes indexer, int padding) {
+    OnDemandJsonIterator(IndexReader indexer, int padding, VectorWidth vectorWidth) {
         this.indexer = indexer;
         this.padding = padding;
+        this.stringParser = new StringParser(vectorWidth);
     }
 
     void init(byte[] buffer, int len) {
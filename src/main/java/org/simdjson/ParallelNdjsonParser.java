@@ -0,0 +1,175 @@
+package org.simdjson;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
+public class ParallelNdjsonParser {
+
+    // Documents are indexed in batches of at most 1MiB, so a larger parser wouldn't let us handle larger documents.
+    private static final int DEFAULT_CAPACITY = 2 * 1024 * 1024;
+    private static final int DEFAULT_MAX_DEPTH = 1024;
+    private static final long DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private final ForkJoinPool pool;
+    private final long chunkSize;
+    private final ThreadLocal<SimdJsonParser> parsers;
+
+    public ParallelNdjsonParser() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CAPACITY, DEFAULT_MAX_DEPTH);
+    }
+
+    public ParallelNdjsonParser(ForkJoinPool pool, int capacity, int maxDepth) {
+        this(pool, capacity, maxDepth, DEFAULT_CHUNK_SIZE);
+    }
+
+    ParallelNdjsonParser(ForkJoinPool pool, int capacity, int maxDepth, long chunkSize) {
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.parsers = ThreadLocal.withInitial(() -> new SimdJsonParser(capacity, maxDepth));
+    }
+
+    public void forEach(Path path, Consumer<JsonValue> consumer) throws IOException {
+        try (Arena arena = Arena.ofShared(); FileChannel channel = FileChannel.open(path, READ)) {
+            forEach(channel.map(READ_ONLY, 0, channel.size(), arena), consumer);
+        }
+    }
+
+    public void forEach(Path path, byte[] pattern, Consumer<JsonValue> consumer) throws IOException {
+        try (Arena arena = Arena.ofShared(); FileChannel channel = FileChannel.open(path, READ)) {
+            forEach(channel.map(READ_ONLY, 0, channel.size(), arena), pattern, consumer);
+        }
+    }
+
+    public <T> void forEach(Path path, Class<T> expectedType, Consumer<T> consumer) throws IOException {
+        try (Arena arena = Arena.ofShared(); FileChannel channel = FileChannel.open(path, READ)) {
+            forEach(channel.map(READ_ONLY, 0, channel.size(), arena), expectedType, consumer);
+        }
+    }
+
+    public <T> void forEachOrdered(Path path, Class<T> expectedType, Consumer<T> consumer) throws IOException {
+        try (Arena arena = Arena.ofShared(); FileChannel channel = FileChannel.open(path, READ)) {
+            forEachOrdered(channel.map(READ_ONLY, 0, channel.size(), arena), expectedType, consumer);
+        }
+    }
+
+    public void forEach(MemorySegment segment, Consumer<JsonValue> consumer) {
+        // The consumer is called concurrently from the worker threads. A value is valid only until the consumer
+        // returns, because the parser that produced it moves on to the next document in the chunk.
+        pool.invoke(new ChunkAction(segment, 0, segment.byteSize(), chunk -> {
+            Iterator<JsonValue> it = parsers.get().parseMany(chunk);
+            while (it.hasNext()) {
+                consumer.accept(it.next());
+            }
+        }));
+    }
+
+    public void forEach(MemorySegment segment, byte[] pattern, Consumer<JsonValue> consumer) {
+        // Only the lines containing the pattern are parsed and passed to the consumer.
+        pool.invoke(new ChunkAction(segment, 0, segment.byteSize(), chunk -> {
+            Iterator<JsonValue> it = parsers.get().parseLinesContaining(chunk, pattern);
+            while (it.hasNext()) {
+                consumer.accept(it.next());
+            }
+        }));
+    }
+
+    public <T> void forEach(MemorySegment segment, Class<T> expectedType, Consumer<T> consumer) {
+        pool.invoke(new ChunkAction(segment, 0, segment.byteSize(), chunk -> {
+            Iterator<T> it = parsers.get().parseMany(chunk, expectedType);
+            while (it.hasNext()) {
+                consumer.accept(it.next());
+            }
+        }));
+    }
+
+    public <T> void forEachOrdered(MemorySegment segment, Class<T> expectedType, Consumer<T> consumer) {
+        // Chunks are parsed in parallel, but their results are passed to the consumer in the input order by the
+        // calling thread. The number of chunks in flight is bounded, so that huge inputs don't have to be fully
+        // materialized. This is available only for records, because a JsonValue doesn't outlive the next document.
+        int maxChunksInFlight = 2 * pool.getParallelism();
+        ArrayDeque<ForkJoinTask<List<T>>> inFlight = new ArrayDeque<>();
+        long offset = 0;
+        try {
+            while (offset < segment.byteSize() || !inFlight.isEmpty()) {
+                while (offset < segment.byteSize() && inFlight.size() < maxChunksInFlight) {
+                    long end = lineEnd(segment, Math.min(offset + chunkSize, segment.byteSize()));
+                    MemorySegment chunk = segment.asSlice(offset, end - offset);
+                    inFlight.add(pool.submit(() -> parseChunk(chunk, expectedType)));
+                    offset = end;
+                }
+                inFlight.poll().join().forEach(consumer);
+            }
+        } finally {
+            // The input might be unmapped right after this method returns, so no task can be left running.
+            for (ForkJoinTask<List<T>> task : inFlight) {
+                task.quietlyJoin();
+            }
+        }
+    }
+
+    private <T> List<T> parseChunk(MemorySegment chunk, Class<T> expectedType) {
+        List<T> documents = new ArrayList<>();
+        parsers.get().parseMany(chunk, expectedType).forEachRemaining(documents::add);
+        return documents;
+    }
+
+    private static long lineEnd(MemorySegment segment, long offset) {
+        // A raw newline can't appear inside a JSON token, so in newline-delimited JSON it always separates documents.
+        long size = segment.byteSize();
+        while (offset < size) {
+            if (segment.get(JAVA_BYTE, offset++) == '\n') {
+                break;
+            }
+        }
+        return offset;
+    }
+
+    private class ChunkAction extends RecursiveAction {
+
+        private final MemorySegment segment;
+        private final long from;
+        private final long to;
+        private final Consumer<MemorySegment> chunkParser;
+
+        ChunkAction(MemorySegment segment, long from, long to, Consumer<MemorySegment> chunkParser) {
+            this.segment = segment;
+            this.from = from;
+            this.to = to;
+            this.chunkParser = chunkParser;
+        }
+
+        @Override
+        protected void compute() {
+            long middle = to - from > chunkSize ? lineEnd(segment, from + (to - from) / 2) : to;
+            if (middle == to) {
+                chunkParser.accept(segment.asSlice(from, to - from));
+                return;
+            }
+            ChunkAction right = new ChunkAction(segment, middle, to, chunkParser);
+            right.fork();
+            try {
+                new ChunkAction(segment, from, middle, chunkParser).compute();
+            } finally {
+                // The input might be unmapped right after the whole computation completes, so the forked task has to
+                // finish even if this one failed.
+                right.quietlyJoin();
+            }
+            right.join();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.simdjson;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+class ParallelStructuralIndexer {
+
+    private static final int BLOCK_SIZE = 64;
+
+    private final StructuralIndexer indexer;
+    private final IndexWriter bitIndexes;
+    private final int maxSegments;
+    private final int minSegmentSize;
+
+    private StructuralIndexer[] segmentIndexers = new StructuralIndexer[0];
+    private BitIndexes[] segmentBitIndexes = new BitIndexes[0];
+
+    ParallelStructuralIndexer(StructuralIndexer indexer, IndexWriter bitIndexes, int maxSegments, int minSegmentSize) {
+        this.indexer = indexer;
+        this.bitIndexes = bitIndexes;
+        this.maxSegments = maxSegments;
+        this.minSegmentSize = Math.max(BLOCK_SIZE, minSegmentSize);
+    }
+
+    void index(byte[] buffer, int start, int length, Executor executor) {
+        int segmentCount = Math.min(maxSegments, length / minSegmentSize);
+        if (segmentCount < 2) {
+            indexer.index(buffer, start, length, false);
+            return;
+        }
+        int segmentLength = length / segmentCount / BLOCK_SIZE * BLOCK_SIZE;
+        ensureSegments(segmentCount, segmentLength);
+
+        // Whether a segment starts inside a string isn't known until all the preceding ones are indexed. So, each
+        // segment is first indexed as if it started outside a string, right after a whitespace, and not after
+        // a backslash.
+        List<Runnable> tasks = new ArrayList<>(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            StructuralIndexer segmentIndexer = segmentIndexers[i];
+            int segmentStart = start + i * segmentLength;
+            tasks.add(() -> segmentIndexer.indexSegment(buffer, start, segmentStart, segmentLength, 0, 0, 0));
+        }
+        runAll(tasks, executor);
+
+        // Flipping the initial in-string state flips it for the whole segment, so the actual state at the end of
+        // each segment can be derived without indexing it again. Only the state after a backslash can't be derived
+        // that way, but a segment boundary falling right after an odd number of backslashes is rare, so such
+        // segments are indexed again right away.
+        long inString = 0;
+        long escaped = 0;
+        long scalar = 0;
+        tasks.clear();
+        for (int i = 0; i < segmentCount; i++) {
+            StructuralIndexer segmentIndexer = segmentIndexers[i];
+            int segmentStart = start + i * segmentLength;
+            if (escaped != 0) {
+                segmentIndexer.indexSegment(buffer, start, segmentStart, segmentLength, inString, escaped, scalar);
+                inString = segmentIndexer.carriedInString();
+            } else {
+                if (inString != 0 || scalar != 0) {
+                    long prevInString = inString;
+                    long prevScalar = scalar;
+                    tasks.add(() -> segmentIndexer.indexSegment(buffer, start, segmentStart, segmentLength, prevInString, 0, prevScalar));
+                }
+                inString ^= segmentIndexer.carriedInString();
+            }
+            escaped = segmentIndexer.carriedEscaped();
+            scalar = segmentIndexer.carriedScalar();
+        }
+        runAll(tasks, executor);
+
+        long unescapedCharsError = 0;
+        long utf8Errors = 0;
+        bitIndexes.reset();
+        for (int i = 0; i < segmentCount; i++) {
+            bitIndexes.append(segmentBitIndexes[i]);
+            unescapedCharsError |= segmentIndexers[i].carriedUnescapedCharsError();
+            utf8Errors |= segmentIndexers[i].carriedUtf8Errors();
+        }
+        int tailStart = start + segmentCount * segmentLength;
+        indexer.indexLastSegment(
+                buffer, tailStart, start + length - tailStart, inString, escaped, scalar, unescapedCharsError, utf8Errors
+        );
+    }
+
+    private void ensureSegments(int segmentCount, int segmentLength) {
+        if (segmentIndexers.length < segmentCount) {
+            segmentIndexers = new StructuralIndexer[segmentCount];
+            segmentBitIndexes = new BitIndexes[segmentCount];
+        }
+        for (int i = 0; i < segmentCount; i++) {
+            if (segmentBitIndexes[i] == null) {
+                segmentBitIndexes[i] = new BitIndexes(segmentLength + BLOCK_SIZE);
+                segmentIndexers[i] = new StructuralIndexer(segmentBitIndexes[i], indexer.vectorWidth());
+            } else if (segmentBitIndexes[i].capacity() < segmentLength + BLOCK_SIZE) {
+                segmentBitIndexes[i].resize(segmentLength + BLOCK_SIZE);
+            }
+        }
+    }
+
+    private static void runAll(List<Runnable> tasks, Executor executor) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = CompletableFuture.runAsync(tasks.get(i), executor);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
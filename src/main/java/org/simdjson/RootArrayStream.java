@@ -0,0 +1,205 @@
+package org.simdjson;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+class RootArrayStream<T> implements Iterator<T> {
+
+    private final StructuralIndexer indexer;
+    private final BitIndexes bitIndexes;
+    private final DocumentStream.DocumentWalker<T> walker;
+    private final ReadableByteChannel channel;
+    private final IntConsumer capacityEnsurer;
+
+    // The window holds the bytes read from the channel that haven't been consumed yet. It starts at the beginning of
+    // the first element that didn't fit in the previous window, so it has to grow only when a single element is
+    // larger than the window.
+    private byte[] window;
+    private int filled;
+    private int carryFrom;
+    private boolean endOfInput;
+
+    private boolean arrayOpened;
+    private boolean arrayClosed;
+    private boolean arrayEmpty = true;
+    private int[] elementStarts = new int[16];
+    private int[] elementEnds = new int[16];
+    private int elementCount;
+    private int elementIdx;
+
+    RootArrayStream(StructuralIndexer indexer, BitIndexes bitIndexes, DocumentStream.DocumentWalker<T> walker,
+                    ReadableByteChannel channel, int windowSize, IntConsumer capacityEnsurer) {
+        this.indexer = indexer;
+        this.bitIndexes = bitIndexes;
+        this.walker = walker;
+        this.channel = channel;
+        this.capacityEnsurer = capacityEnsurer;
+        this.window = new byte[windowSize];
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (elementIdx == elementCount) {
+            if (arrayClosed && endOfInput) {
+                return false;
+            }
+            indexNextWindow();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more elements in the array.");
+        }
+        int start = elementStarts[elementIdx];
+        int end = elementEnds[elementIdx++];
+        // Each element is walked as if it were a separate document. The separator that follows it marks its end.
+        while (bitIndexes.position() < start) {
+            bitIndexes.advance();
+        }
+        int len = bitIndexes.get(end);
+        bitIndexes.startDocument(end);
+        try {
+            return walker.walk(window, len);
+        } finally {
+            bitIndexes.endDocument();
+        }
+    }
+
+    private void indexNextWindow() {
+        int carried = filled - carryFrom;
+        System.arraycopy(window, carryFrom, window, 0, carried);
+        filled = carried;
+        carryFrom = 0;
+        if (filled == window.length) {
+            window = Arrays.copyOf(window, (int) Math.min(2L * window.length, Integer.MAX_VALUE - 8));
+        }
+        read();
+        int len = endOfInput ? filled : alignToCharBoundary(filled);
+        capacityEnsurer.accept(len);
+        indexer.index(window, 0, len, !endOfInput);
+        frameElements(len);
+    }
+
+    private void read() {
+        ByteBuffer target = ByteBuffer.wrap(window, filled, window.length - filled);
+        try {
+            while (target.hasRemaining()) {
+                if (channel.read(target) < 0) {
+                    endOfInput = true;
+                    break;
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        filled = target.position();
+    }
+
+    private int alignToCharBoundary(int len) {
+        // Cutting a multibyte character in half would make UTF-8 validation of the window fail. The cut character is
+        // carried over to the next window.
+        for (int i = 1; i <= 3 && i <= len; i++) {
+            byte b = window[len - i];
+            if ((b & 0xC0) != 0x80) {
+                int charLength = b >= 0 ? 1 : (b & 0xE0) == 0xC0 ? 2 : (b & 0xF0) == 0xE0 ? 3 : 4;
+                return charLength > i ? len - i : len;
+            }
+        }
+        return len;
+    }
+
+    private void frameElements(int len) {
+        int count = bitIndexes.size();
+        elementCount = 0;
+        elementIdx = 0;
+        // Bytes that aren't a part of any element (e.g., whitespace after the last comma) are dropped.
+        carryFrom = len;
+        int idx = 0;
+        if (arrayClosed) {
+            if (count > 0) {
+                throw new JsonParsingException("More than one JSON value at the root of the document, or extra characters at the end of the JSON!");
+            }
+            return;
+        }
+        if (!arrayOpened) {
+            if (count == 0) {
+                if (endOfInput) {
+                    throw new JsonParsingException("No structural element found.");
+                }
+                return;
+            }
+            if (window[bitIndexes.get(0)] != '[') {
+                throw new JsonParsingException("The root of the document is not an array.");
+            }
+            arrayOpened = true;
+            idx = 1;
+        }
+        while (idx < count) {
+            int elementStart = idx;
+            byte first = window[bitIndexes.get(idx)];
+            if (first == ']' && arrayEmpty) {
+                closeArray(idx + 1, count);
+                return;
+            }
+            if (first == ',' || first == ']') {
+                throw new JsonParsingException("Unrecognized primitive. Expected: string, number, 'true', 'false' or 'null'.");
+            }
+            int depth = 0;
+            do {
+                switch (window[bitIndexes.get(idx++)]) {
+                    case '{', '[' -> depth++;
+                    case '}', ']' -> depth--;
+                }
+            } while (depth > 0 && idx < count);
+
+            // The element is complete only if the separator after it is in the window. Otherwise, either the element
+            // itself or a longer token at its end might continue in the next window.
+            if (idx == count) {
+                if (endOfInput) {
+                    throw new JsonParsingException("Unclosed array. Missing ']' for starting '['.");
+                }
+                carryFrom = bitIndexes.get(elementStart);
+                return;
+            }
+            byte separator = window[bitIndexes.get(idx)];
+            if (separator != ',' && separator != ']') {
+                throw new JsonParsingException("Missing comma between array values");
+            }
+            addElement(elementStart, idx);
+            if (separator == ']') {
+                closeArray(idx + 1, count);
+                return;
+            }
+            idx++;
+        }
+        if (endOfInput) {
+            throw new JsonParsingException("Unclosed array. Missing ']' for starting '['.");
+        }
+    }
+
+    private void closeArray(int idx, int count) {
+        if (idx < count) {
+            throw new JsonParsingException("More than one JSON value at the root of the document, or extra characters at the end of the JSON!");
+        }
+        arrayClosed = true;
+    }
+
+    private void addElement(int start, int end) {
+        if (elementCount == elementStarts.length) {
+            elementStarts = Arrays.copyOf(elementStarts, elementCount * 2);
+            elementEnds = Arrays.copyOf(elementEnds, elementCount * 2);
+        }
+        arrayEmpty = false;
+        elementStarts[elementCount] = start;
+        elementEnds[elementCount++] = end;
+    }
+}
@@ -17,16 +17,26 @@ class SchemaBasedJsonIterator {
 
     private final ClassResolver classResolver;
     private final OnDemandJsonIterator jsonIterator;
-    private final byte[] stringBuffer;
+    private byte[] stringBuffer;
 
-    SchemaBasedJsonIterator(BitIndexes bitIndexes, byte[] stringBuffer, int padding) {
-        this.jsonIterator = new OnDemandJsonIterator(bitIndexes, padding);
+    SchemaBasedJsonIterator(IndexReader bitIndexes, byte[] stringBuffer, int padding, VectorWidth vectorWidth) {
+        this.jsonIterator = new OnDemandJsonIterator(bitIndexes, padding, vectorWidth);
         this.classResolver = new ClassResolver();
         this.stringBuffer = stringBuffer;
     }
 
-    @SuppressWarnings("unchecked")
+    void setStringBuffer(byte[] stringBuffer) {
+        this.stringBuffer = stringBuffer;
+    }
+
     <T> T walkDocument(byte[] padded, int len, Class<T> expectedType) {
+        return walkDocument(padded, len, expectedType, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T walkDocument(byte[] padded, int len, Class<T> expectedType, boolean stopWhenComplete) {
+        // With stopWhenComplete, the walk of a root object ends as soon as all the fields of the expected class are
+        // collected, so the rest of the document is neither read nor validated.
         jsonIterator.init(padded, len);
         classResolver.reset();
 
@@ -50,7 +60,7 @@ class SchemaBasedJsonIterator {
             case CHAR -> (T) jsonIterator.getRootChar();
             case STRING -> (T) getRootString();
             case ARRAY -> (T) getRootArray(resolvedExpectedClass.getElementClass());
-            case CUSTOM -> (T) getRootObject(resolvedExpectedClass);
+            case CUSTOM -> (T) (stopWhenComplete ? getRootObjectPrefix(resolvedExpectedClass) : getRootObject(resolvedExpectedClass));
             case LIST -> throw new JsonParsingException("Lists at the root are not supported. Consider using an array instead.");
         };
     }
@@ -62,6 +72,17 @@ class SchemaBasedJsonIterator {
         return object;
     }
 
+    private Object getRootObjectPrefix(ResolvedClass expectedClass) {
+        IteratorResult result = jsonIterator.startIteratingRootObject();
+        if (result != IteratorResult.NOT_EMPTY) {
+            return getObject(expectedClass, result);
+        }
+        ConstructorArgumentsMap argumentsMap = expectedClass.getArgumentsMap();
+        Object[] args = new Object[argumentsMap.getArgumentCount()];
+        collectArguments(argumentsMap, args);
+        return createObject(expectedClass, args);
+    }
+
     private Object getObject(ResolvedClass expectedClass) {
         IteratorResult result = jsonIterator.startIteratingObject();
         return getObject(expectedClass, result);
@@ -0,0 +1,157 @@
+package org.simdjson;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+
+// Indexes an input held in a MemorySegment without ever copying the whole of it to the heap. Stage 1 reads the input in
+// chunks through a small heap buffer, and stage 2 reads it through a window that slides as the iterator advances.
+// Between two moves of the iterator, it only reads the bytes from the current structural character up to the next one,
+// plus padding, so the window has to fit only the longest such span rather than the whole input. The positions stored
+// here are positions in the input, while the ones returned to the iterators are positions in the window.
+class SegmentBitIndexes extends BitIndexes {
+
+    private static final int BLOCK_SIZE = 64;
+    private static final byte SPACE = 0x20;
+
+    private final StructuralIndexer indexer;
+    private final int chunkSize;
+    private final int padding;
+
+    private MemorySegment input;
+    private int len;
+    private byte[] window = new byte[0];
+    private int windowStart;
+    private int windowEnd;
+    private int firstSlot;
+    private int lastSlot;
+
+    SegmentBitIndexes(int capacity, int chunkSize, int padding, VectorWidth vectorWidth) {
+        super(capacity);
+        this.indexer = new StructuralIndexer(this, vectorWidth);
+        this.chunkSize = chunkSize / BLOCK_SIZE * BLOCK_SIZE;
+        this.padding = padding;
+    }
+
+    void init(MemorySegment input, int len) {
+        this.input = input;
+        this.len = len;
+    }
+
+    void index() {
+        // The chunks are indexed one after another, like in LazyBitIndexes, except that each of them is first copied
+        // to the beginning of the window. So, the indexes are positions in the chunk, and they are shifted afterwards.
+        ensureWindowCapacity(chunkSize);
+        indexer.startChunks();
+        int offset = 0;
+        do {
+            int length = Math.min(chunkSize, len - offset);
+            boolean last = offset + length == len;
+            int required = size() + length + BLOCK_SIZE;
+            if (capacity() < required) {
+                grow(Math.max(required, 2 * capacity()));
+            }
+            MemorySegment.copy(input, JAVA_BYTE, offset, window, 0, length);
+            int chunkStart = size();
+            indexer.indexChunk(window, 0, length, last);
+            shift(chunkStart, offset);
+            offset += length;
+        } while (offset < len);
+    }
+
+    int openWindow() {
+        // Returns the length of the input as seen by the iterators, i.e., relative to the start of the window. The
+        // last slots of the window hold the first and the last structural characters, which the iterators read when
+        // they go past the end of the indexes and when they check that the document is closed.
+        int count = size();
+        int span = count == 0 ? 0 : len - get(count - 1);
+        for (int i = 1; i < count; i++) {
+            span = Math.max(span, get(i) - get(i - 1));
+        }
+        ensureWindowCapacity(Math.max(chunkSize, span + padding) + padding + 2);
+        firstSlot = window.length - 2;
+        lastSlot = window.length - 1;
+        if (count == 0) {
+            return len;
+        }
+        window[firstSlot] = input.get(JAVA_BYTE, get(0));
+        window[lastSlot] = input.get(JAVA_BYTE, get(count - 1));
+        slideTo(get(0));
+        return len - windowStart;
+    }
+
+    byte[] window() {
+        return window;
+    }
+
+    private void ensureWindowCapacity(int required) {
+        if (window.length < required) {
+            window = new byte[required];
+        }
+    }
+
+    private void ensureInWindow() {
+        int readIdx = position();
+        if (readIdx > size()) {
+            return;
+        }
+        int next = readIdx < size() ? get(readIdx) : len;
+        if (Math.min(next + padding, len) > windowEnd) {
+            slideTo(get(readIdx - 1));
+        }
+    }
+
+    private void slideTo(int start) {
+        // The window is large enough for the longest span between two structural characters, so the current one and
+        // everything up to the next one always fit. The input is followed by spaces, just like a padded buffer.
+        int dataCapacity = window.length - padding - 2;
+        int length = Math.min(dataCapacity, len - start);
+        MemorySegment.copy(input, JAVA_BYTE, start, window, 0, length);
+        windowStart = start;
+        windowEnd = start + length;
+        if (windowEnd == len) {
+            Arrays.fill(window, length, length + padding, SPACE);
+        }
+    }
+
+    private int toWindow(int idx) {
+        return idx < size() ? get(idx) - windowStart : firstSlot;
+    }
+
+    @Override
+    public void advance() {
+        super.advance();
+        ensureInWindow();
+    }
+
+    @Override
+    public int getAndAdvance() {
+        super.advance();
+        ensureInWindow();
+        return toWindow(position() - 1);
+    }
+
+    @Override
+    public int getLast() {
+        return lastSlot;
+    }
+
+    @Override
+    public int advanceAndGet() {
+        super.advance();
+        ensureInWindow();
+        return toWindow(position());
+    }
+
+    @Override
+    public int peek() {
+        return toWindow(position());
+    }
+
+    @Override
+    void resize(int capacity) {
+        super.resize(capacity);
+        window = new byte[0];
+    }
+}
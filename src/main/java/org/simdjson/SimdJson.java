@@ -0,0 +1,51 @@
+package org.simdjson;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Objects;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+
+public class SimdJson {
+
+    private static final int MINIFY_WINDOW_SIZE = 64 * 1024;
+
+    private SimdJson() {
+    }
+
+    public static int minify(byte[] in, int len, byte[] out) {
+        // Removes whitespace outside strings and returns the length of the result. The input isn't validated. The
+        // output has to be at least as long as the input, and it can be the input itself.
+        Objects.checkFromIndexSize(0, len, in.length);
+        checkOutputSize(len, out.length);
+        return new JsonMinifier().minify(in, 0, len, out, 0);
+    }
+
+    public static long minify(MemorySegment in, MemorySegment out) {
+        checkOutputSize(in.byteSize(), out.byteSize());
+        if (in.heapBase().orElse(null) instanceof byte[] inArray
+                && out.heapBase().orElse(null) instanceof byte[] outArray) {
+            // For heap segments, the address is the offset within the array.
+            return new JsonMinifier().minify(inArray, (int) in.address(), (int) in.byteSize(), outArray, (int) out.address());
+        }
+        // Other segments are minified in windows copied to and from arrays. The windows are multiples of the block size,
+        // so the state carried between blocks is also carried between windows.
+        JsonMinifier minifier = new JsonMinifier();
+        byte[] inWindow = new byte[(int) Math.min(in.byteSize(), MINIFY_WINDOW_SIZE)];
+        byte[] outWindow = new byte[inWindow.length];
+        long outOffset = 0;
+        for (long offset = 0; offset < in.byteSize(); offset += inWindow.length) {
+            int len = (int) Math.min(inWindow.length, in.byteSize() - offset);
+            MemorySegment.copy(in, JAVA_BYTE, offset, inWindow, 0, len);
+            int minifiedLen = minifier.minify(inWindow, 0, len, outWindow, 0);
+            MemorySegment.copy(outWindow, 0, out, JAVA_BYTE, outOffset, minifiedLen);
+            outOffset += minifiedLen;
+        }
+        return outOffset;
+    }
+
+    private static void checkOutputSize(long inputSize, long outputSize) {
+        if (outputSize < inputSize) {
+            throw new IllegalArgumentException("The output is smaller than the input: " + outputSize + " < " + inputSize + " bytes.");
+        }
+    }
+}
@@ -1,59 +1,715 @@
 package org.simdjson;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
 public class SimdJsonParser {
 
     private static final int PADDING = 64;
-    private static final int DEFAULT_CAPACITY = 34 * 1024 * 1024; // we should be able to handle jsons <= 34MiB
+    private static final int DEFAULT_CAPACITY = 64 * 1024;
+    private static final int DEFAULT_MAX_RETAINED_CAPACITY = 4 * 1024 * 1024;
     private static final int DEFAULT_MAX_DEPTH = 1024;
+    private static final int DEFAULT_BATCH_SIZE = 1024 * 1024;
+    private static final int MIN_PARALLEL_SEGMENT_SIZE = 1024 * 1024;
+    private static final int DEFAULT_LAZY_CHUNK_SIZE = 64 * 1024;
+    private static final int SEGMENT_CHUNK_SIZE = 64 * 1024;
 
     private final StructuralIndexer indexer;
     private final BitIndexes bitIndexes;
+    private final Tape tape;
     private final JsonIterator jsonIterator;
+    private final JsonValidator jsonValidator;
     private final SchemaBasedJsonIterator schemaBasedJsonIterator;
-    private final byte[] paddedBuffer;
+    // Single documents given as byte arrays are indexed with the structures below. Unless the compact index is
+    // enabled, they are the same as the ones above, which are also used by streams and index().
+    private final CompactBitIndexes compactBitIndexes;
+    private final IndexReader documentIndexes;
+    private final StructuralIndexer documentIndexer;
+    private final JsonIterator documentJsonIterator;
+    private final JsonValidator documentJsonValidator;
+    private final SchemaBasedJsonIterator documentSchemaBasedJsonIterator;
+    private final int capacity;
+    private final int maxDepth;
+    private final int maxRetainedCapacity;
+    private final int batchSize;
+    private final int lazyChunkSize;
+
+    private byte[] inputBuffer;
+    private byte[] stringBuffer;
+    private int largestLength;
+
+    private StructuralIndexer spareIndexer;
+    private BitIndexes spareBitIndexes;
+    private byte[][] pipelinedWindowBuffers;
+    private DocumentStream<?> pipelinedStream;
+    private ParallelStructuralIndexer parallelIndexer;
+    private LazyBitIndexes lazyBitIndexes;
+    private SchemaBasedJsonIterator lazySchemaBasedJsonIterator;
+    private SegmentBitIndexes segmentBitIndexes;
+    private JsonIterator segmentJsonIterator;
+    private SchemaBasedJsonIterator segmentSchemaBasedJsonIterator;
+    private JsonValidator segmentJsonValidator;
 
     public SimdJsonParser() {
-        this(DEFAULT_CAPACITY, DEFAULT_MAX_DEPTH);
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_DEPTH, DEFAULT_MAX_RETAINED_CAPACITY);
     }
 
     public SimdJsonParser(int capacity, int maxDepth) {
-        bitIndexes = new BitIndexes(capacity);
-        byte[] stringBuffer = new byte[capacity];
-        jsonIterator = new JsonIterator(bitIndexes, stringBuffer, capacity, maxDepth, PADDING);
-        schemaBasedJsonIterator = new SchemaBasedJsonIterator(bitIndexes, stringBuffer, PADDING);
-        paddedBuffer = new byte[capacity];
-        indexer = new StructuralIndexer(bitIndexes);
+        this(capacity, maxDepth, capacity);
+    }
+
+    public SimdJsonParser(int capacity, int maxDepth, int maxRetainedCapacity) {
+        this(capacity, maxDepth, maxRetainedCapacity, VectorWidth.DEFAULT, false, DEFAULT_LAZY_CHUNK_SIZE);
+    }
+
+    private SimdJsonParser(int capacity, int maxDepth, int maxRetainedCapacity, VectorWidth vectorWidth,
+                           boolean compactIndex, int lazyChunkSize) {
+        // The buffers are allocated for documents of the given capacity, and they grow when a larger document comes.
+        // Once they have grown beyond maxRetainedCapacity, they are shrunk back when the parser gets a document that
+        // doesn't exceed it. This way, a single outlier doesn't keep a lot of memory occupied.
+        this.capacity = capacity;
+        this.maxDepth = maxDepth;
+        this.maxRetainedCapacity = Math.max(capacity, maxRetainedCapacity);
+        this.lazyChunkSize = lazyChunkSize;
+        // With the compact index, the regular one is needed only by streams and index(), so it's allocated once one
+        // of them is used.
+        bitIndexes = new BitIndexes(compactIndex ? 0 : capacity);
+        tape = new Tape(capacity);
+        stringBuffer = new byte[capacity];
+        jsonIterator = new JsonIterator(bitIndexes, tape, stringBuffer, maxDepth, PADDING, vectorWidth);
+        jsonValidator = new JsonValidator(bitIndexes, maxDepth, PADDING, vectorWidth);
+        schemaBasedJsonIterator = new SchemaBasedJsonIterator(bitIndexes, stringBuffer, PADDING, vectorWidth);
+        inputBuffer = new byte[0];
+        indexer = new StructuralIndexer(bitIndexes, vectorWidth);
+        // The compact index is created only on request, so that the iterators aren't slowed down by a second
+        // implementation of the index unless it's actually used.
+        if (compactIndex) {
+            compactBitIndexes = new CompactBitIndexes(capacity);
+            documentIndexes = compactBitIndexes;
+            documentIndexer = new StructuralIndexer(compactBitIndexes, vectorWidth);
+            documentJsonIterator = new JsonIterator(compactBitIndexes, tape, stringBuffer, maxDepth, PADDING, vectorWidth);
+            documentJsonValidator = new JsonValidator(compactBitIndexes, maxDepth, PADDING, vectorWidth);
+            documentSchemaBasedJsonIterator = new SchemaBasedJsonIterator(compactBitIndexes, stringBuffer, PADDING, vectorWidth);
+        } else {
+            compactBitIndexes = null;
+            documentIndexes = bitIndexes;
+            documentIndexer = indexer;
+            documentJsonIterator = jsonIterator;
+            documentJsonValidator = jsonValidator;
+            documentSchemaBasedJsonIterator = schemaBasedJsonIterator;
+        }
+        largestLength = capacity;
+        // Batches are never larger than the retained capacity, so streams of documents never cause shrinking.
+        batchSize = Math.min(this.maxRetainedCapacity - PADDING, DEFAULT_BATCH_SIZE);
+    }
+
+    public static Builder builder() {
+        return new Builder();
     }
 
     public <T> T parse(byte[] buffer, int len, Class<T> expectedType) {
-        byte[] padded = padIfNeeded(buffer, len);
-        reset();
-        stage1(padded, len);
-        return schemaBasedJsonIterator.walkDocument(padded, len, expectedType);
+        return parse(buffer, 0, len, expectedType);
     }
 
     public JsonValue parse(byte[] buffer, int len) {
-        byte[] padded = padIfNeeded(buffer, len);
+        return parse(buffer, 0, len);
+    }
+
+    public <T> T parse(byte[] buffer, int offset, int len, Class<T> expectedType) {
+        stage1(buffer, offset, len, null);
+        return documentSchemaBasedJsonIterator.walkDocument(buffer, offset + len, expectedType);
+    }
+
+    public JsonValue parse(byte[] buffer, int offset, int len) {
+        // The document is parsed in place, so neither the bytes around it nor any padding after it are required. The
+        // indexes and the end position used by both stages are positions in the whole buffer.
+        stage1(buffer, offset, len, null);
+        return documentJsonIterator.walkDocument(buffer, offset + len);
+    }
+
+    public <T> T parse(byte[] buffer, int len, Class<T> expectedType, Executor executor) {
+        stage1(buffer, 0, len, executor);
+        return documentSchemaBasedJsonIterator.walkDocument(buffer, len, expectedType);
+    }
+
+    public JsonValue parse(byte[] buffer, int len, Executor executor) {
+        // Stage 1 of a large document is split into segments that are indexed on the executor. Smaller documents
+        // wouldn't benefit from this, so they are indexed on the calling thread.
+        stage1(buffer, 0, len, executor);
+        return documentJsonIterator.walkDocument(buffer, len);
+    }
+
+    public <T> T parse(MemorySegment segment, Class<T> expectedType) {
+        int len = lengthOf(segment);
+        if (segment.heapBase().orElse(null) instanceof byte[] array) {
+            return parse(array, (int) segment.address(), len, expectedType);
+        }
+        requireRegularIndex();
+        return parseOffHeap(segment, len, expectedType);
+    }
+
+    public JsonValue parse(MemorySegment segment) {
+        int len = lengthOf(segment);
+        if (segment.heapBase().orElse(null) instanceof byte[] array) {
+            // For heap segments, the address is the offset within the array.
+            return parse(array, (int) segment.address(), len);
+        }
+        requireRegularIndex();
+        return parseOffHeap(segment, len);
+    }
+
+    private JsonValue parseOffHeap(MemorySegment segment, int len) {
+        // The segment is read directly, through a window that never holds more than a small part of it.
+        int end = segmentStage1(segment, len);
+        return segmentJsonIterator.walkDocument(segmentBitIndexes.window(), end);
+    }
+
+    private <T> T parseOffHeap(MemorySegment segment, int len, Class<T> expectedType) {
+        int end = segmentStage1(segment, len);
+        return segmentSchemaBasedJsonIterator.walkDocument(segmentBitIndexes.window(), end, expectedType);
+    }
+
+    public <T> T parse(ByteBuffer buffer, Class<T> expectedType) {
+        if (buffer.hasArray()) {
+            return parse(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), expectedType);
+        }
+        return parse(MemorySegment.ofBuffer(buffer), expectedType);
+    }
+
+    public JsonValue parse(ByteBuffer buffer) {
+        // Only the bytes between the buffer's position and limit are parsed. Neither of them is modified. A heap buffer
+        // is parsed in place in its backing array. Direct and read-only buffers are read through a segment, so they
+        // aren't copied either.
+        if (buffer.hasArray()) {
+            return parse(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        return parse(MemorySegment.ofBuffer(buffer));
+    }
+
+    public <T> T parse(Path path, Class<T> expectedType) throws IOException {
+        try (Arena arena = Arena.ofConfined(); FileChannel channel = FileChannel.open(path, READ)) {
+            return parse(channel.map(READ_ONLY, 0, channel.size(), arena), expectedType);
+        }
+    }
+
+    public JsonValue parse(Path path) throws IOException {
+        // The returned value doesn't reference the mapped file, so it can be unmapped right after parsing.
+        try (Arena arena = Arena.ofConfined(); FileChannel channel = FileChannel.open(path, READ)) {
+            return parse(channel.map(READ_ONLY, 0, channel.size(), arena));
+        }
+    }
+
+    public <T> T parse(Path path, Path indexPath, Class<T> expectedType) throws IOException {
+        requireRegularIndex();
+        try (Arena arena = Arena.ofConfined(); FileChannel channel = FileChannel.open(path, READ)) {
+            MemorySegment segment = channel.map(READ_ONLY, 0, channel.size(), arena);
+            int end = segmentStage1(segment, lengthOf(segment), indexPath);
+            return segmentSchemaBasedJsonIterator.walkDocument(segmentBitIndexes.window(), end, expectedType);
+        }
+    }
+
+    public JsonValue parse(Path path, Path indexPath) throws IOException {
+        // Stage 1 is skipped if the index file was written for the same content with writeIndex. Otherwise, the file
+        // is indexed as usual, and the index file is left untouched.
+        requireRegularIndex();
+        try (Arena arena = Arena.ofConfined(); FileChannel channel = FileChannel.open(path, READ)) {
+            MemorySegment segment = channel.map(READ_ONLY, 0, channel.size(), arena);
+            int end = segmentStage1(segment, lengthOf(segment), indexPath);
+            return segmentJsonIterator.walkDocument(segmentBitIndexes.window(), end);
+        }
+    }
+
+    public <T> T parseLazily(byte[] buffer, int len, Class<T> expectedType) {
+        return parseLazily(buffer, 0, len, expectedType);
+    }
+
+    public <T> T parseLazily(byte[] buffer, int offset, int len, Class<T> expectedType) {
+        // The input is indexed in chunks as the iterator reaches them, and when the expected type is a class, parsing
+        // stops once all its fields are found. So, a query for a few fields near the beginning of a large document
+        // doesn't touch the rest of it, which then isn't validated either.
+        Objects.checkFromIndexSize(offset, len, buffer.length);
+        requireRegularIndex();
+        awaitPipelinedStream();
+        releaseOutlierBuffers(len);
+        // Strings are parsed one at a time at the beginning of the string buffer, so the buffer has to fit the longest
+        // of them, which can't be longer than the document.
+        if (stringBuffer.length < len + PADDING) {
+            setStringBuffer(new byte[grow(stringBuffer.length, len + PADDING)]);
+        }
+        SchemaBasedJsonIterator iterator = lazySchemaBasedJsonIterator();
+        lazyBitIndexes.init(buffer, offset, len);
+        return iterator.walkDocument(buffer, offset + len, expectedType, true);
+    }
+
+    public void writeIndex(Path path, Path indexPath) throws IOException {
+        // Indexing fails for invalid input, so only indexes of valid UTF-8 are ever written.
+        try (Arena arena = Arena.ofConfined(); FileChannel channel = FileChannel.open(path, READ)) {
+            MemorySegment segment = channel.map(READ_ONLY, 0, channel.size(), arena);
+            indexSegment(segment, lengthOf(segment));
+            IndexSidecar.write(indexPath, segment, segmentBitIndexes);
+        }
+    }
+
+    public void validate(byte[] buffer, int len) {
+        validate(buffer, 0, len);
+    }
+
+    public void validate(byte[] buffer, int offset, int len) {
+        // Throws the same exception as parse would, but neither the tape nor the string buffer is filled, so they
+        // don't have to grow either.
+        Objects.checkFromIndexSize(offset, len, buffer.length);
         reset();
-        stage1(padded, len);
-        return jsonIterator.walkDocument(padded, len);
+        ensureDocumentCapacity(len);
+        documentIndexer.index(buffer, offset, len, false);
+        documentJsonValidator.validateDocument(buffer, offset + len);
+    }
+
+    public void validate(MemorySegment segment) {
+        int len = lengthOf(segment);
+        if (segment.heapBase().orElse(null) instanceof byte[] array) {
+            validate(array, (int) segment.address(), len);
+        } else {
+            requireRegularIndex();
+            indexSegment(segment, len);
+            segmentJsonValidator.validateDocument(segmentBitIndexes.window(), segmentBitIndexes.openWindow());
+        }
+    }
+
+    public StructuralIndex index(byte[] buffer, int len) {
+        return index(buffer, 0, len);
+    }
+
+    public StructuralIndex index(byte[] buffer, int offset, int len) {
+        // Only stage 1 is run, so the input is checked for invalid UTF-8, unclosed strings and unescaped control
+        // characters, but not for its structure. Like in every other overload, the positions are relative to the
+        // start of the input, i.e., to the offset.
+        Objects.checkFromIndexSize(offset, len, buffer.length);
+        reset();
+        ensureCapacity(len);
+        indexer.index(buffer, offset, len, false);
+        return new StructuralIndex(bitIndexes, offset);
+    }
+
+    public StructuralIndex index(MemorySegment segment) {
+        // The positions are relative to the start of the segment.
+        int len = lengthOf(segment);
+        if (segment.heapBase().orElse(null) instanceof byte[] array) {
+            return index(array, (int) segment.address(), len);
+        }
+        indexSegment(segment, len);
+        return new StructuralIndex(segmentBitIndexes, 0);
+    }
+
+    public Iterator<JsonValue> parseMany(byte[] buffer, int len) {
+        return parseMany(MemorySegment.ofArray(buffer).asSlice(0, len));
+    }
+
+    public <T> Iterator<T> parseMany(byte[] buffer, int len, Class<T> expectedType) {
+        return parseMany(MemorySegment.ofArray(buffer).asSlice(0, len), expectedType);
+    }
+
+    public Iterator<JsonValue> parseMany(MemorySegment segment) {
+        awaitPipelinedStream();
+        ensureBatchCapacity(segment);
+        // Documents can be separated by whitespace (e.g., newline-delimited JSON) or concatenated back-to-back. The
+        // input is indexed in batches, so only a single document has to fit in a batch. Each returned value is valid
+        // only until the next document is parsed.
+        return new DocumentStream<>(indexer, bitIndexes, inputBuffer, this::walkDocument, segment, batchSize);
+    }
+
+    public <T> Iterator<T> parseMany(MemorySegment segment, Class<T> expectedType) {
+        awaitPipelinedStream();
+        ensureBatchCapacity(segment);
+        return new DocumentStream<>(indexer, bitIndexes, inputBuffer, schemaBasedWalker(expectedType), segment, batchSize);
+    }
+
+    public Iterator<JsonValue> parseMany(byte[] buffer, int len, Executor executor) {
+        return parseMany(MemorySegment.ofArray(buffer).asSlice(0, len), executor);
+    }
+
+    public <T> Iterator<T> parseMany(byte[] buffer, int len, Class<T> expectedType, Executor executor) {
+        return parseMany(MemorySegment.ofArray(buffer).asSlice(0, len), expectedType, executor);
+    }
+
+    public Iterator<JsonValue> parseMany(MemorySegment segment, Executor executor) {
+        // Stage 1 of the next batch runs on the executor while documents from the current batch are being walked.
+        return parseManyPipelined(segment, this::walkDocument, executor);
+    }
+
+    public <T> Iterator<T> parseMany(MemorySegment segment, Class<T> expectedType, Executor executor) {
+        return parseManyPipelined(segment, schemaBasedWalker(expectedType), executor);
+    }
+
+    public Iterator<JsonValue> parseLinesContaining(byte[] buffer, int len, byte[] pattern) {
+        // Only the lines of newline-delimited JSON whose raw bytes contain the pattern are parsed. The others are
+        // skipped by a vectorized search before any other processing.
+        Objects.checkFromIndexSize(0, len, buffer.length);
+        return new FilteredLineStream<>(lineFinder(pattern), this::parse, buffer, 0, len);
+    }
+
+    public <T> Iterator<T> parseLinesContaining(byte[] buffer, int len, byte[] pattern, Class<T> expectedType) {
+        Objects.checkFromIndexSize(0, len, buffer.length);
+        return new FilteredLineStream<>(lineFinder(pattern), (b, offset, l) -> parse(b, offset, l, expectedType), buffer, 0, len);
+    }
+
+    public Iterator<JsonValue> parseLinesContaining(MemorySegment segment, byte[] pattern) {
+        int len = lengthOf(segment);
+        if (segment.heapBase().orElse(null) instanceof byte[] array) {
+            return new FilteredLineStream<>(lineFinder(pattern), this::parse, array, (int) segment.address(), len);
+        }
+        // The matching lines are parsed directly from the segment. Only the search goes through a heap buffer.
+        return new FilteredLineStream<>(lineFinder(pattern), line -> parseOffHeap(line, lengthOf(line)), segment, len, searchBuffer(pattern));
+    }
+
+    public <T> Iterator<T> parseLinesContaining(MemorySegment segment, byte[] pattern, Class<T> expectedType) {
+        int len = lengthOf(segment);
+        FilteredLineStream.LineParser<T> lineParser = (b, offset, l) -> parse(b, offset, l, expectedType);
+        if (segment.heapBase().orElse(null) instanceof byte[] array) {
+            return new FilteredLineStream<>(lineFinder(pattern), lineParser, array, (int) segment.address(), len);
+        }
+        return new FilteredLineStream<>(lineFinder(pattern), line -> parseOffHeap(line, lengthOf(line), expectedType), segment, len, searchBuffer(pattern));
+    }
+
+    public Iterator<JsonValue> parseArrayElements(InputStream in) {
+        return parseArrayElements(Channels.newChannel(in));
+    }
+
+    public <T> Iterator<T> parseArrayElements(InputStream in, Class<T> expectedType) {
+        return parseArrayElements(Channels.newChannel(in), expectedType);
+    }
+
+    public Iterator<JsonValue> parseArrayElements(ReadableByteChannel channel) {
+        // The input has to be a single JSON array, whose elements are returned one by one. It is read in windows, so
+        // the memory needed doesn't depend on the size of the whole array, but on the size of its largest element.
+        // Each returned value is valid only until the next element is parsed. The channel is not closed.
+        awaitPipelinedStream();
+        return new RootArrayStream<>(indexer, bitIndexes, this::walkDocument, channel, batchSize, this::ensureCapacity);
+    }
+
+    public <T> Iterator<T> parseArrayElements(ReadableByteChannel channel, Class<T> expectedType) {
+        awaitPipelinedStream();
+        return new RootArrayStream<>(indexer, bitIndexes, schemaBasedWalker(expectedType), channel, batchSize, this::ensureCapacity);
+    }
+
+    private <T> Iterator<T> parseManyPipelined(MemorySegment segment, DocumentStream.DocumentWalker<T> walker, Executor executor) {
+        awaitPipelinedStream();
+        ensureCapacity(batchSize);
+        if (spareBitIndexes == null) {
+            // A batch is never larger than batchSize, so the spare structures don't have to match the capacity. The
+            // window buffers are separate from inputBuffer, so that the background indexing never races with an input
+            // being copied there.
+            spareBitIndexes = new BitIndexes(batchSize + PADDING);
+            spareIndexer = new StructuralIndexer(spareBitIndexes, indexer.vectorWidth());
+            pipelinedWindowBuffers = new byte[][]{new byte[batchSize], new byte[batchSize]};
+        }
+        DocumentStream<T> stream = new DocumentStream<>(
+                indexer, bitIndexes, pipelinedWindowBuffers[0], walker, segment, batchSize,
+                executor, spareIndexer, spareBitIndexes, pipelinedWindowBuffers[1]
+        );
+        pipelinedStream = stream;
+        return stream;
+    }
+
+    private void requireRegularIndex() {
+        // Off-heap input and lazy parsing use their own variants of the regular index, which have no compact
+        // counterparts.
+        if (compactBitIndexes != null) {
+            throw new UnsupportedOperationException("A compact index is supported only for documents in heap memory that are parsed whole.");
+        }
+    }
+
+    private void awaitPipelinedStream() {
+        if (pipelinedStream != null) {
+            // The previous stream might have been abandoned while its next batch was still being indexed.
+            pipelinedStream.awaitBackgroundIndexing();
+            pipelinedStream = null;
+        }
+    }
+
+    private JsonValue walkDocument(byte[] buffer, int len) {
+        jsonIterator.reset();
+        ensureStage2Capacity(len);
+        return jsonIterator.walkDocument(buffer, len);
+    }
+
+    private <T> DocumentStream.DocumentWalker<T> schemaBasedWalker(Class<T> expectedType) {
+        return (buffer, len) -> {
+            ensureStage2Capacity(len);
+            return schemaBasedJsonIterator.walkDocument(buffer, len, expectedType);
+        };
+    }
+
+    private byte[] searchBuffer(byte[] pattern) {
+        // The buffer is searched in windows that overlap by the length of the pattern, so it has to be longer.
+        ensureInputBufferCapacity(Math.max(SEGMENT_CHUNK_SIZE, 2 * pattern.length));
+        return inputBuffer;
+    }
+
+    private static SubstringFinder lineFinder(byte[] pattern) {
+        for (byte b : pattern) {
+            if (b == '\n') {
+                throw new IllegalArgumentException("The pattern cannot contain a newline.");
+            }
+        }
+        return new SubstringFinder(pattern);
+    }
+
+    private static int lengthOf(MemorySegment segment) {
+        if (segment.byteSize() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The input is too large: " + segment.byteSize() + " bytes.");
+        }
+        return (int) segment.byteSize();
+    }
+
+    private void ensureCapacity(int len) {
+        releaseOutlierBuffers(len);
+        if (bitIndexes.capacity() < len + PADDING) {
+            bitIndexes.resize(grow(bitIndexes.capacity(), len + PADDING));
+        }
+    }
+
+    private void ensureDocumentCapacity(int len) {
+        if (compactBitIndexes == null) {
+            ensureCapacity(len);
+            return;
+        }
+        releaseOutlierBuffers(len);
+        if (compactBitIndexes.capacity() < len + PADDING) {
+            compactBitIndexes.resize(grow(compactBitIndexes.capacity(), len + PADDING));
+        }
+    }
+
+    private void releaseOutlierBuffers(int len) {
+        if (largestLength > maxRetainedCapacity && len <= maxRetainedCapacity) {
+            // The buffers are released only now, because the value returned for the outlier had to stay valid until
+            // the next document is parsed.
+            if (bitIndexes.capacity() > capacity) {
+                bitIndexes.resize(capacity);
+            }
+            if (compactBitIndexes != null) {
+                compactBitIndexes.resize(capacity);
+            }
+            tape.resize(capacity);
+            setStringBuffer(new byte[capacity]);
+            inputBuffer = new byte[0];
+            parallelIndexer = null;
+            if (lazyBitIndexes != null) {
+                lazyBitIndexes.resize(capacity);
+            }
+            if (segmentBitIndexes != null) {
+                segmentBitIndexes.resize(capacity);
+            }
+            largestLength = capacity;
+        }
+        largestLength = Math.max(largestLength, len);
+    }
+
+    private void ensureBatchCapacity(MemorySegment segment) {
+        ensureCapacity(batchSize);
+        if (!(segment.heapBase().orElse(null) instanceof byte[])) {
+            ensureInputBufferCapacity(batchSize);
+        }
+    }
+
+    private void ensureInputBufferCapacity(int len) {
+        if (inputBuffer.length < len) {
+            inputBuffer = new byte[grow(inputBuffer.length, len)];
+        }
+    }
+
+    private void ensureStage2Capacity(int end) {
+        ensureStage2Capacity(bitIndexes, end);
+    }
+
+    private void ensureStage2Capacity(IndexReader bitIndexes, int end) {
+        // Stage 1 tells us how many structural characters the document has, which bounds the sizes of the tape and
+        // the string buffer. Each of them produces at most two tape entries (e.g., a number), and each string is
+        // preceded by its 4-byte length in the string buffer, while its quotes are not stored there.
+        int structuralCount = bitIndexes.size() - bitIndexes.position();
+        int documentLength = structuralCount == 0 ? 0 : end - bitIndexes.peek();
+        int tapeLength = 2 * structuralCount + 2;
+        if (tape.capacity() < tapeLength) {
+            tape.resize(grow(tape.capacity(), tapeLength));
+        }
+        int stringBufferLength = documentLength + 2 * structuralCount + PADDING;
+        if (stringBuffer.length < stringBufferLength) {
+            setStringBuffer(new byte[grow(stringBuffer.length, stringBufferLength)]);
+        }
     }
 
-    private byte[] padIfNeeded(byte[] buffer, int len) {
-        if (buffer.length - len < PADDING) {
-            System.arraycopy(buffer, 0, paddedBuffer, 0, len);
-            return paddedBuffer;
+    private void setStringBuffer(byte[] stringBuffer) {
+        this.stringBuffer = stringBuffer;
+        jsonIterator.setStringBuffer(stringBuffer);
+        schemaBasedJsonIterator.setStringBuffer(stringBuffer);
+        if (compactBitIndexes != null) {
+            documentJsonIterator.setStringBuffer(stringBuffer);
+            documentSchemaBasedJsonIterator.setStringBuffer(stringBuffer);
+        }
+        if (lazySchemaBasedJsonIterator != null) {
+            lazySchemaBasedJsonIterator.setStringBuffer(stringBuffer);
+        }
+        if (segmentBitIndexes != null) {
+            segmentJsonIterator.setStringBuffer(stringBuffer);
+            segmentSchemaBasedJsonIterator.setStringBuffer(stringBuffer);
         }
-        return buffer;
+    }
+
+    private static int grow(int current, int required) {
+        // Growing geometrically keeps the number of reallocations low when documents get gradually larger.
+        return (int) Math.min(Math.max(required, current + (long) (current >> 1)), Integer.MAX_VALUE - 8);
     }
 
     private void reset() {
+        awaitPipelinedStream();
         bitIndexes.reset();
         jsonIterator.reset();
+        if (compactBitIndexes != null) {
+            compactBitIndexes.reset();
+            documentJsonIterator.reset();
+        }
+    }
+
+    private void stage1(byte[] buffer, int offset, int len, Executor executor) {
+        Objects.checkFromIndexSize(offset, len, buffer.length);
+        reset();
+        ensureDocumentCapacity(len);
+        if (executor == null) {
+            documentIndexer.index(buffer, offset, len, false);
+        } else {
+            parallelIndexer().index(buffer, offset, len, executor);
+        }
+        ensureStage2Capacity(documentIndexes, offset + len);
+    }
+
+    private int segmentStage1(MemorySegment segment, int len) {
+        indexSegment(segment, len);
+        return openSegmentWindow();
     }
 
-    private void stage1(byte[] buffer, int length) {
-        Utf8Validator.validate(buffer, length);
-        indexer.index(buffer, length);
+    private int segmentStage1(MemorySegment segment, int len, Path indexPath) throws IOException {
+        initSegment(segment, len);
+        if (!IndexSidecar.read(indexPath, segment, segmentBitIndexes)) {
+            segmentBitIndexes.index();
+        }
+        return openSegmentWindow();
+    }
+
+    private void indexSegment(MemorySegment segment, int len) {
+        initSegment(segment, len);
+        segmentBitIndexes.index();
+    }
+
+    private void initSegment(MemorySegment segment, int len) {
+        reset();
+        releaseOutlierBuffers(len);
+        segmentBitIndexes().init(segment, len);
+    }
+
+    private int openSegmentWindow() {
+        // Returns the end of the input relative to the window, which is what the iterators expect as its length.
+        segmentJsonIterator.reset();
+        int end = segmentBitIndexes.openWindow();
+        ensureStage2Capacity(segmentBitIndexes, end);
+        return end;
+    }
+
+    private ParallelStructuralIndexer parallelIndexer() {
+        if (parallelIndexer == null) {
+            parallelIndexer = new ParallelStructuralIndexer(
+                    documentIndexer, compactBitIndexes != null ? compactBitIndexes : bitIndexes,
+                    Runtime.getRuntime().availableProcessors(), MIN_PARALLEL_SEGMENT_SIZE
+            );
+        }
+        return parallelIndexer;
+    }
+
+    private SchemaBasedJsonIterator lazySchemaBasedJsonIterator() {
+        // Created on first use, because loading a second subclass of BitIndexes slows down the iterators that use
+        // the regular one.
+        if (lazySchemaBasedJsonIterator == null) {
+            lazyBitIndexes = new LazyBitIndexes(capacity, lazyChunkSize, indexer.vectorWidth());
+            lazySchemaBasedJsonIterator = new SchemaBasedJsonIterator(lazyBitIndexes, stringBuffer, PADDING, indexer.vectorWidth());
+        }
+        return lazySchemaBasedJsonIterator;
+    }
+
+    private SegmentBitIndexes segmentBitIndexes() {
+        // Created on first use for the same reason as the lazy iterator. The iterators share the tape and the string
+        // buffer with the ones used for byte arrays.
+        if (segmentBitIndexes == null) {
+            VectorWidth vectorWidth = indexer.vectorWidth();
+            segmentBitIndexes = new SegmentBitIndexes(capacity, SEGMENT_CHUNK_SIZE, PADDING, vectorWidth);
+            segmentJsonIterator = new JsonIterator(segmentBitIndexes, tape, stringBuffer, maxDepth, PADDING, vectorWidth);
+            segmentSchemaBasedJsonIterator = new SchemaBasedJsonIterator(segmentBitIndexes, stringBuffer, PADDING, vectorWidth);
+            segmentJsonValidator = new JsonValidator(segmentBitIndexes, maxDepth, PADDING, vectorWidth);
+        }
+        return segmentBitIndexes;
+    }
+
+    public static class Builder {
+
+        private int capacity = DEFAULT_CAPACITY;
+        private int maxDepth = DEFAULT_MAX_DEPTH;
+        private int maxRetainedCapacity = DEFAULT_MAX_RETAINED_CAPACITY;
+        private VectorWidth vectorWidth = VectorWidth.DEFAULT;
+        private boolean compactIndex;
+        private int lazyChunkSize = DEFAULT_LAZY_CHUNK_SIZE;
+
+        private Builder() {
+        }
+
+        public Builder capacity(int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        public Builder maxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        public Builder maxRetainedCapacity(int maxRetainedCapacity) {
+            this.maxRetainedCapacity = maxRetainedCapacity;
+            return this;
+        }
+
+        public Builder vectorWidth(VectorWidth vectorWidth) {
+            this.vectorWidth = Objects.requireNonNull(vectorWidth);
+            return this;
+        }
+
+        public Builder compactIndex(boolean compactIndex) {
+            // Stores the index of single documents in heap memory in half the memory, which pays off for large
+            // documents. Streams and index() still use the regular index. Off-heap input and lazy parsing aren't
+            // supported then.
+            this.compactIndex = compactIndex;
+            return this;
+        }
+
+        public Builder lazyChunkSize(int lazyChunkSize) {
+            // The number of bytes indexed at a time by parseLazily. It's rounded down to a multiple of 64.
+            if (lazyChunkSize < 64) {
+                throw new IllegalArgumentException("The chunk size has to be at least 64 bytes.");
+            }
+            this.lazyChunkSize = lazyChunkSize;
+            return this;
+        }
+
+        public SimdJsonParser build() {
+            return new SimdJsonParser(capacity, maxDepth, maxRetainedCapacity, vectorWidth, compactIndex, lazyChunkSize);
+        }
     }
 }
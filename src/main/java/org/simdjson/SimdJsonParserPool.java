@@ -0,0 +1,107 @@
+package org.simdjson;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+public class SimdJsonParserPool {
+
+    private static final int MIN_CAPACITY = 64 * 1024;
+    private static final int DEFAULT_MAX_CAPACITY = 34 * 1024 * 1024;
+    private static final int DEFAULT_MAX_DEPTH = 1024;
+
+    private final SizeClass[] sizeClasses;
+
+    public SimdJsonParserPool() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_CAPACITY, DEFAULT_MAX_DEPTH);
+    }
+
+    public SimdJsonParserPool(int maxParsersPerSizeClass, int maxCapacity, int maxDepth) {
+        // Capacities of the size classes grow by a factor of 4, so a document never gets a parser more than 4 times
+        // larger than needed, and the number of classes stays small.
+        List<SizeClass> classes = new ArrayList<>();
+        for (long capacity = MIN_CAPACITY; capacity < maxCapacity; capacity *= 4) {
+            classes.add(new SizeClass((int) capacity, maxDepth, maxParsersPerSizeClass));
+        }
+        classes.add(new SizeClass(maxCapacity, maxDepth, maxParsersPerSizeClass));
+        sizeClasses = classes.toArray(SizeClass[]::new);
+    }
+
+    public Lease lease(int documentLength) throws InterruptedException {
+        // Parsers are created lazily, up to the limit of the size class. A lease blocks only when all of them are in
+        // use. Waiting doesn't pin the carrier of a virtual thread, because no monitors are involved.
+        SizeClass sizeClass = sizeClassFor(documentLength);
+        sizeClass.permits.acquire();
+        SimdJsonParser parser = sizeClass.idleParsers.poll();
+        if (parser == null) {
+            try {
+                parser = new SimdJsonParser(sizeClass.capacity, sizeClass.maxDepth);
+            } catch (RuntimeException | Error ex) {
+                sizeClass.permits.release();
+                throw ex;
+            }
+        }
+        return new Lease(sizeClass, parser);
+    }
+
+    private SizeClass sizeClassFor(int documentLength) {
+        for (SizeClass sizeClass : sizeClasses) {
+            if (documentLength <= sizeClass.capacity) {
+                return sizeClass;
+            }
+        }
+        throw new IllegalArgumentException(
+                "The document is too large: " + documentLength + " bytes. The maximum capacity of the pool is "
+                        + sizeClasses[sizeClasses.length - 1].capacity + " bytes."
+        );
+    }
+
+    public static final class Lease implements AutoCloseable {
+
+        private final SizeClass sizeClass;
+        private SimdJsonParser parser;
+
+        private Lease(SizeClass sizeClass, SimdJsonParser parser) {
+            this.sizeClass = sizeClass;
+            this.parser = parser;
+        }
+
+        public SimdJsonParser parser() {
+            if (parser == null) {
+                throw new IllegalStateException("The parser has already been returned to the pool.");
+            }
+            return parser;
+        }
+
+        public int capacity() {
+            return sizeClass.capacity;
+        }
+
+        @Override
+        public void close() {
+            // Values produced by the parser must not be used after it is returned, because the next lease will
+            // overwrite them.
+            if (parser != null) {
+                sizeClass.idleParsers.offer(parser);
+                parser = null;
+                sizeClass.permits.release();
+            }
+        }
+    }
+
+    private static final class SizeClass {
+
+        private final int capacity;
+        private final int maxDepth;
+        private final Semaphore permits;
+        private final Queue<SimdJsonParser> idleParsers = new ConcurrentLinkedQueue<>();
+
+        private SizeClass(int capacity, int maxDepth, int maxParsers) {
+            this.capacity = capacity;
+            this.maxDepth = maxDepth;
+            this.permits = new Semaphore(maxParsers, true);
+        }
+    }
+}
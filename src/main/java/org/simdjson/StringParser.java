@@ -1,6 +1,9 @@
 package org.simdjson;
 
 import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
 
 import static org.simdjson.CharacterUtils.escape;
 import static org.simdjson.CharacterUtils.hexToInt;
@@ -9,12 +12,25 @@ class StringParser {
 
     private static final byte BACKSLASH = '\\';
     private static final byte QUOTE = '"';
-    private static final int BYTES_PROCESSED = VectorUtils.BYTE_SPECIES.vectorByteSize();
+    private static final long BACKSLASHES = SwarUtils.broadcast(BACKSLASH);
+    private static final long QUOTES = SwarUtils.broadcast(QUOTE);
     private static final int MIN_HIGH_SURROGATE = 0xD800;
     private static final int MAX_HIGH_SURROGATE = 0xDBFF;
     private static final int MIN_LOW_SURROGATE = 0xDC00;
     private static final int MAX_LOW_SURROGATE = 0xDFFF;
 
+    private final byte[] tail = new byte[2 * ByteVector.SPECIES_512.vectorByteSize()];
+    private final int vectorBitSize;
+
+    StringParser() {
+        this(VectorWidth.DEFAULT);
+    }
+
+    StringParser(VectorWidth vectorWidth) {
+        // Strings are usually short, so they are treated as small documents when the width is adaptive.
+        this.vectorBitSize = vectorWidth.bitSize(0);
+    }
+
     int parseString(byte[] buffer, int idx, byte[] stringBuffer, int stringBufferIdx) {
         int dst = doParseString(buffer, idx, stringBuffer, stringBufferIdx + Integer.BYTES);
         int len = dst - stringBufferIdx - Integer.BYTES;
@@ -26,11 +42,36 @@ class StringParser {
         return doParseString(buffer, idx, stringBuffer, 0);
     }
 
+    int parseStringWithVectors(byte[] buffer, int idx, byte[] stringBuffer) {
+        // Parses the string with the vectorized code even if SWAR is currently used, so that it can be warmed up.
+        return parseStringWithVectors(VectorUtils.BYTE_SPECIES, buffer, idx, stringBuffer, 0);
+    }
+
     private int doParseString(byte[] buffer, int idx, byte[] stringBuffer, int offset) {
+        if (VectorUtils.useSwar()) {
+            return parseStringWithSwar(buffer, idx, stringBuffer, offset);
+        }
+        // The species is a constant in each branch, and the called method is small enough to be inlined, so the JIT
+        // compiler sees a constant species, which is required to compile the vector operations into instructions.
+        return switch (vectorBitSize) {
+            case 128 -> parseStringWithVectors(ByteVector.SPECIES_128, buffer, idx, stringBuffer, offset);
+            case 256 -> parseStringWithVectors(ByteVector.SPECIES_256, buffer, idx, stringBuffer, offset);
+            default -> parseStringWithVectors(ByteVector.SPECIES_512, buffer, idx, stringBuffer, offset);
+        };
+    }
+
+    private int parseStringWithVectors(VectorSpecies<Byte> species, byte[] input, int idx, byte[] stringBuffer,
+                                       int offset) {
+        int bytesProcessed = species.vectorByteSize();
+        byte[] buffer = input;
         int src = idx + 1;
         int dst = offset;
         while (true) {
-            ByteVector srcVec = ByteVector.fromArray(VectorUtils.BYTE_SPECIES, buffer, src);
+            if (src + bytesProcessed > buffer.length) {
+                buffer = copyTail(buffer, src);
+                src = 0;
+            }
+            ByteVector srcVec = ByteVector.fromArray(species, buffer, src);
             srcVec.intoArray(stringBuffer, dst);
             long backslashBits = srcVec.eq(BACKSLASH).toLong();
             long quoteBits = srcVec.eq(QUOTE).toLong();
@@ -45,7 +86,54 @@ class StringParser {
                 if (escapeChar == 'u') {
                     src += backslashDist;
                     dst += backslashDist;
-                    int codePoint = hexToInt(buffer, src + 2);
+                    int codePoint = parseCodePoint(buffer, src + 2);
+                    src += 6;
+                    if (codePoint >= MIN_HIGH_SURROGATE && codePoint <= MAX_HIGH_SURROGATE) {
+                        codePoint = parseLowSurrogate(buffer, src, codePoint);
+                        src += 6;
+                    } else if (codePoint >= MIN_LOW_SURROGATE && codePoint <= MAX_LOW_SURROGATE) {
+                        throw new JsonParsingException("Invalid code point. The range U+DC00–U+DFFF is reserved for low surrogate.");
+                    }
+                    dst += storeCodePointInStringBuffer(codePoint, dst, stringBuffer);
+                } else {
+                    stringBuffer[dst + backslashDist] = escape(escapeChar);
+                    src += backslashDist + 2;
+                    dst += backslashDist + 1;
+                }
+            } else {
+                src += bytesProcessed;
+                dst += bytesProcessed;
+            }
+        }
+        return dst;
+    }
+
+    private int parseStringWithSwar(byte[] input, int idx, byte[] stringBuffer, int offset) {
+        byte[] buffer = input;
+        int src = idx + 1;
+        int dst = offset;
+        while (true) {
+            if (src + Long.BYTES > buffer.length) {
+                buffer = copyTail(buffer, src);
+                src = 0;
+            }
+            // The bits are the highest bits of the matching bytes, so the distances are divided by the byte size.
+            long word = SwarUtils.load(buffer, src);
+            SwarUtils.store(stringBuffer, dst, word);
+            long backslashBits = SwarUtils.eq(word, BACKSLASHES);
+            long quoteBits = SwarUtils.eq(word, QUOTES);
+
+            if (hasQuoteFirst(backslashBits, quoteBits)) {
+                dst += Long.numberOfTrailingZeros(quoteBits) >>> 3;
+                break;
+            }
+            if (hasBackslash(backslashBits, quoteBits)) {
+                int backslashDist = Long.numberOfTrailingZeros(backslashBits) >>> 3;
+                byte escapeChar = buffer[src + backslashDist + 1];
+                if (escapeChar == 'u') {
+                    src += backslashDist;
+                    dst += backslashDist;
+                    int codePoint = parseCodePoint(buffer, src + 2);
                     src += 6;
                     if (codePoint >= MIN_HIGH_SURROGATE && codePoint <= MAX_HIGH_SURROGATE) {
                         codePoint = parseLowSurrogate(buffer, src, codePoint);
@@ -60,20 +148,102 @@ class StringParser {
                     dst += backslashDist + 1;
                 }
             } else {
-                src += BYTES_PROCESSED;
-                dst += BYTES_PROCESSED;
+                src += Long.BYTES;
+                dst += Long.BYTES;
             }
         }
         return dst;
     }
 
+    void validateString(byte[] buffer, int idx) {
+        // Checks the escape sequences in the same way as parseString, but nothing is copied or unescaped.
+        if (VectorUtils.useSwar()) {
+            validateStringWithSwar(buffer, idx);
+            return;
+        }
+        switch (vectorBitSize) {
+            case 128 -> validateStringWithVectors(ByteVector.SPECIES_128, buffer, idx);
+            case 256 -> validateStringWithVectors(ByteVector.SPECIES_256, buffer, idx);
+            default -> validateStringWithVectors(ByteVector.SPECIES_512, buffer, idx);
+        }
+    }
+
+    private void validateStringWithVectors(VectorSpecies<Byte> species, byte[] input, int idx) {
+        int bytesProcessed = species.vectorByteSize();
+        byte[] buffer = input;
+        int src = idx + 1;
+        while (true) {
+            if (src + bytesProcessed > buffer.length) {
+                buffer = copyTail(buffer, src);
+                src = 0;
+            }
+            ByteVector srcVec = ByteVector.fromArray(species, buffer, src);
+            long backslashBits = srcVec.eq(BACKSLASH).toLong();
+            long quoteBits = srcVec.eq(QUOTE).toLong();
+
+            if (hasQuoteFirst(backslashBits, quoteBits)) {
+                return;
+            }
+            if (hasBackslash(backslashBits, quoteBits)) {
+                src = validateEscapeSequence(buffer, src + Long.numberOfTrailingZeros(backslashBits));
+            } else {
+                src += bytesProcessed;
+            }
+        }
+    }
+
+    private void validateStringWithSwar(byte[] input, int idx) {
+        byte[] buffer = input;
+        int src = idx + 1;
+        while (true) {
+            if (src + Long.BYTES > buffer.length) {
+                buffer = copyTail(buffer, src);
+                src = 0;
+            }
+            long word = SwarUtils.load(buffer, src);
+            long backslashBits = SwarUtils.eq(word, BACKSLASHES);
+            long quoteBits = SwarUtils.eq(word, QUOTES);
+
+            if (hasQuoteFirst(backslashBits, quoteBits)) {
+                return;
+            }
+            if (hasBackslash(backslashBits, quoteBits)) {
+                src = validateEscapeSequence(buffer, src + (Long.numberOfTrailingZeros(backslashBits) >>> 3));
+            } else {
+                src += Long.BYTES;
+            }
+        }
+    }
+
+    private int validateEscapeSequence(byte[] buffer, int src) {
+        // Returns the position right after the escape sequence starting at the given backslash.
+        byte escapeChar = buffer[src + 1];
+        if (escapeChar != 'u') {
+            escape(escapeChar);
+            return src + 2;
+        }
+        int codePoint = parseCodePoint(buffer, src + 2);
+        src += 6;
+        if (codePoint >= MIN_HIGH_SURROGATE && codePoint <= MAX_HIGH_SURROGATE) {
+            parseLowSurrogate(buffer, src, codePoint);
+            return src + 6;
+        }
+        if (codePoint >= MIN_LOW_SURROGATE && codePoint <= MAX_LOW_SURROGATE) {
+            throw new JsonParsingException("Invalid code point. The range U+DC00–U+DFFF is reserved for low surrogate.");
+        }
+        if (codePoint < 0) {
+            throw new JsonParsingException("Invalid unicode escape sequence.");
+        }
+        return src;
+    }
+
     char parseChar(byte[] buffer, int startIdx) {
         int idx = startIdx + 1;
         char character;
         if (buffer[idx] == '\\') {
             byte escapeChar = buffer[idx + 1];
             if (escapeChar == 'u') {
-                int codePoint = hexToInt(buffer, idx + 2);
+                int codePoint = parseCodePoint(buffer, idx + 2);
                 if (codePoint >= MIN_HIGH_SURROGATE && codePoint <= MAX_LOW_SURROGATE) {
                     throw new JsonParsingException("Invalid code point. Should be within the range U+0000–U+D777 or U+E000–U+FFFF.");
                 }
@@ -109,11 +279,31 @@ class StringParser {
         return character;
     }
 
+    private byte[] copyTail(byte[] buffer, int src) {
+        // The input isn't padded, and we are close to its end. The closing quote is guaranteed to be within the
+        // buffer (this is verified in stage 1, which LazyBitIndexes runs past a string before returning its index),
+        // so the rest of the string fits in the tail copy. We switch to the copy instead of using a masked load,
+        // because merging two vectors loaded in different ways prevents the JIT from keeping them in registers.
+        int remaining = buffer.length - src;
+        System.arraycopy(buffer, src, tail, 0, remaining);
+        Arrays.fill(tail, remaining, tail.length, (byte) ' ');
+        return tail;
+    }
+
+    private static int parseCodePoint(byte[] buffer, int idx) {
+        // An escape sequence cut short by the closing quote could make us read past the end of an unpadded buffer.
+        // A negative value makes the caller report an invalid escape sequence.
+        if (idx + 4 > buffer.length) {
+            return -1;
+        }
+        return hexToInt(buffer, idx);
+    }
+
     private int parseLowSurrogate(byte[] buffer, int src, int codePoint) {
-        if ((buffer[src] << 8 | buffer[src + 1]) != ('\\' << 8 | 'u')) {
+        if (src + 1 >= buffer.length || (buffer[src] << 8 | buffer[src + 1]) != ('\\' << 8 | 'u')) {
             throw new JsonParsingException("Low surrogate should start with '\\u'");
         } else {
-            int codePoint2 = hexToInt(buffer, src + 2);
+            int codePoint2 = parseCodePoint(buffer, src + 2);
             int lowBit = codePoint2 - MIN_LOW_SURROGATE;
             if (lowBit >> 10 == 0) {
                 return (((codePoint - MIN_HIGH_SURROGATE) << 10) | lowBit) + 0x10000;
@@ -0,0 +1,73 @@
+package org.simdjson;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+// A read-only view of the output of stage 1, i.e., the positions of structural characters ({, }, [, ], :, ,) and of
+// the first bytes of scalar values, in ascending order. It's backed by the parser's internal buffer, so it's valid only
+// until the next call to the parser. Use toArray() to keep the positions for longer.
+public class StructuralIndex {
+
+    private final BitIndexes bitIndexes;
+    private final int base;
+    private final int count;
+
+    StructuralIndex(BitIndexes bitIndexes, int base) {
+        this.bitIndexes = bitIndexes;
+        this.base = base;
+        this.count = bitIndexes.size();
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int get(int idx) {
+        Objects.checkIndex(idx, count);
+        return bitIndexes.get(idx) - base;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < count; i++) {
+            action.accept(bitIndexes.get(i) - base);
+        }
+    }
+
+    public PrimitiveIterator.OfInt iterator() {
+        return new PositionIterator();
+    }
+
+    public int[] toArray() {
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = bitIndexes.get(i) - base;
+        }
+        return positions;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private class PositionIterator implements PrimitiveIterator.OfInt {
+
+        private int idx;
+
+        @Override
+        public boolean hasNext() {
+            return idx < count;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more structural positions.");
+            }
+            return bitIndexes.get(idx++) - base;
+        }
+    }
+}
@@ -1,17 +1,40 @@
 package org.simdjson;
 
 import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
 import jdk.incubator.vector.VectorShuffle;
 
 import java.util.Arrays;
 
+import static jdk.incubator.vector.ByteVector.SPECIES_128;
 import static jdk.incubator.vector.ByteVector.SPECIES_256;
 import static jdk.incubator.vector.ByteVector.SPECIES_512;
+import static jdk.incubator.vector.VectorOperators.EQ;
+import static jdk.incubator.vector.VectorOperators.LSHL;
+import static jdk.incubator.vector.VectorOperators.LSHR;
+import static jdk.incubator.vector.VectorOperators.NE;
+import static jdk.incubator.vector.VectorOperators.UGE;
+import static jdk.incubator.vector.VectorOperators.UGT;
 import static jdk.incubator.vector.VectorOperators.ULE;
+import static org.simdjson.Utf8Validator.ALL_ASCII_MASK;
+import static org.simdjson.Utf8Validator.BYTE_1_HIGH_LOOKUP_256;
+import static org.simdjson.Utf8Validator.BYTE_1_HIGH_LOOKUP_512;
+import static org.simdjson.Utf8Validator.BYTE_1_LOW_LOOKUP_256;
+import static org.simdjson.Utf8Validator.BYTE_1_LOW_LOOKUP_512;
+import static org.simdjson.Utf8Validator.BYTE_2_HIGH_LOOKUP_256;
+import static org.simdjson.Utf8Validator.BYTE_2_HIGH_LOOKUP_512;
+import static org.simdjson.Utf8Validator.FOUR_BYTES_FORWARD_SHIFT_256;
+import static org.simdjson.Utf8Validator.FOUR_BYTES_FORWARD_SHIFT_512;
+import static org.simdjson.Utf8Validator.INCOMPLETE_CHECK_256;
+import static org.simdjson.Utf8Validator.INCOMPLETE_CHECK_512;
+import static org.simdjson.Utf8Validator.MAX_2_LEADING_BYTE;
+import static org.simdjson.Utf8Validator.MAX_3_LEADING_BYTE;
+import static org.simdjson.Utf8Validator.THREE_BYTES_SIZE;
+import static org.simdjson.Utf8Validator.TWO_BYTES_SIZE;
 
 class StructuralIndexer {
 
-    private static final int VECTOR_BIT_SIZE = VectorUtils.BYTE_SPECIES.vectorBitSize();
     private static final int STEP_SIZE = 64;
     private static final byte BACKSLASH = (byte) '\\';
     private static final byte QUOTE = (byte) '"';
@@ -20,50 +43,462 @@ class StructuralIndexer {
     private static final long EVEN_BITS_MASK = 0x5555555555555555L;
     private static final long ODD_BITS_MASK = ~EVEN_BITS_MASK;
     private static final byte LOW_NIBBLE_MASK = 0x0f;
-    private static final ByteVector WHITESPACE_TABLE = VectorUtils.repeat(
-            new byte[]{' ', 100, 100, 100, 17, 100, 113, 2, 100, '\t', '\n', 112, 100, '\r', 100, 100}
-    );
-    private static final ByteVector OP_TABLE = VectorUtils.repeat(
-            new byte[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, ':', '{', ',', '}', 0, 0}
-    );
+    private static final long BACKSLASHES = SwarUtils.broadcast(BACKSLASH);
+    private static final long QUOTES = SwarUtils.broadcast(QUOTE);
+    private static final long SPACES = SwarUtils.broadcast(SPACE);
+    private static final long TABS = SwarUtils.broadcast('\t');
+    private static final long LINE_FEEDS = SwarUtils.broadcast('\n');
+    private static final long CARRIAGE_RETURNS = SwarUtils.broadcast('\r');
+    private static final long COLONS = SwarUtils.broadcast(':');
+    private static final long COMMAS = SwarUtils.broadcast(',');
+    private static final long OPENING_BRACES = SwarUtils.broadcast('{');
+    private static final long CLOSING_BRACES = SwarUtils.broadcast('}');
+    private static final byte[] WHITESPACE = {' ', 100, 100, 100, 17, 100, 113, 2, 100, '\t', '\n', 112, 100, '\r', 100, 100};
+    private static final byte[] OP = {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, ':', '{', ',', '}', 0, 0};
+    private static final ByteVector WHITESPACE_TABLE_128 = VectorUtils.repeat(SPECIES_128, WHITESPACE);
+    private static final ByteVector WHITESPACE_TABLE_256 = VectorUtils.repeat(SPECIES_256, WHITESPACE);
+    private static final ByteVector WHITESPACE_TABLE_512 = VectorUtils.repeat(SPECIES_512, WHITESPACE);
+    private static final ByteVector OP_TABLE_128 = VectorUtils.repeat(SPECIES_128, OP);
+    private static final ByteVector OP_TABLE_256 = VectorUtils.repeat(SPECIES_256, OP);
+    private static final ByteVector OP_TABLE_512 = VectorUtils.repeat(SPECIES_512, OP);
     private static final byte[] LAST_BLOCK_SPACES = new byte[STEP_SIZE];
 
     static {
         Arrays.fill(LAST_BLOCK_SPACES, SPACE);
     }
 
-    private final BitIndexes bitIndexes;
+    private final IndexWriter bitIndexes;
+    private final VectorWidth vectorWidth;
     private final byte[] lastBlock = new byte[STEP_SIZE];
 
-    StructuralIndexer(BitIndexes bitIndexes) {
+    // The state at the boundary between two segments of an input that is indexed in parts. Before indexing a segment,
+    // it holds the state at the end of the previous one, and afterwards, the state at the end of the segment.
+    private long carriedInString;
+    private long carriedEscaped;
+    private long carriedScalar;
+    private long carriedUnescapedCharsError;
+    private long carriedUtf8Errors;
+    private int carriedFourUtf8Bytes;
+
+    StructuralIndexer(IndexWriter bitIndexes) {
+        this(bitIndexes, VectorWidth.DEFAULT);
+    }
+
+    StructuralIndexer(IndexWriter bitIndexes, VectorWidth vectorWidth) {
         this.bitIndexes = bitIndexes;
+        this.vectorWidth = vectorWidth;
+    }
+
+    VectorWidth vectorWidth() {
+        return vectorWidth;
     }
 
     void index(byte[] buffer, int length) {
+        index(buffer, 0, length, false);
+    }
+
+    void index(byte[] buffer, int start, int length, boolean partial) {
+        // The produced indexes are positions in the whole buffer, not relative to the start. A partial input is
+        // a window over a larger one, so it may end in the middle of a string.
         bitIndexes.reset();
-        switch (VECTOR_BIT_SIZE) {
-            case 256 -> index256(buffer, length);
-            case 512 -> index512(buffer, length);
-            default -> throw new UnsupportedOperationException("Unsupported vector width: " + VECTOR_BIT_SIZE * 64);
+        carry(0, 0, 0, 0, 0, 0);
+        indexBlocks(buffer, start, length, partial, true);
+    }
+
+    void indexSegment(byte[] buffer, int inputStart, int start, int length, long prevInString, long prevEscaped,
+                      long prevScalar) {
+        // The segment is a part of a larger input, and its length is a multiple of the block size. Errors are not
+        // reported here, because the initial state passed for the segment might be a guess. They are accumulated in
+        // the carried state instead. The UTF-8 validation state, unlike the string state, depends only on the few
+        // bytes preceding the segment, so it is never guessed.
+        bitIndexes.reset();
+        carry(prevInString, prevEscaped, prevScalar, 0, 0, Utf8Validator.lastFourBytes(buffer, inputStart, start));
+        indexBlocks(buffer, start, length, true, false);
+    }
+
+    void indexLastSegment(byte[] buffer, int start, int length, long prevInString, long prevEscaped, long prevScalar,
+                          long unescapedCharsError, long utf8Errors) {
+        // The indexes of the preceding segments are expected to be already in the bit indexes, so they are not reset.
+        carry(prevInString, prevEscaped, prevScalar, unescapedCharsError, utf8Errors,
+                Utf8Validator.lastFourBytes(buffer, start - 4, start));
+        indexBlocks(buffer, start, length, false, true);
+    }
+
+    void startChunks() {
+        bitIndexes.reset();
+        carry(0, 0, 0, 0, 0, 0);
+    }
+
+    void indexChunk(byte[] buffer, int start, int length, boolean last) {
+        // The input is indexed in consecutive chunks, and the indexes of each of them are appended to the preceding
+        // ones. The length of every chunk but the last one has to be a multiple of the block size. Errors found in
+        // a chunk are reported right away, because the chunks that follow it might never be indexed.
+        indexBlocks(buffer, start, length, false, last);
+        if (carriedUtf8Errors != 0) {
+            throw new JsonParsingException("The input is not valid UTF-8");
+        }
+        if (carriedUnescapedCharsError != 0) {
+            throw new JsonParsingException("Unescaped characters. Within strings, there are characters that should be escaped.");
+        }
+    }
+
+    long carriedInString() {
+        return carriedInString;
+    }
+
+    long carriedEscaped() {
+        return carriedEscaped;
+    }
+
+    long carriedScalar() {
+        return carriedScalar;
+    }
+
+    long carriedUnescapedCharsError() {
+        return carriedUnescapedCharsError;
+    }
+
+    long carriedUtf8Errors() {
+        return carriedUtf8Errors;
+    }
+
+    private void carry(long inString, long escaped, long scalar, long unescapedCharsError, long utf8Errors,
+                       int fourUtf8Bytes) {
+        carriedInString = inString;
+        carriedEscaped = escaped;
+        carriedScalar = scalar;
+        carriedUnescapedCharsError = unescapedCharsError;
+        carriedUtf8Errors = utf8Errors;
+        carriedFourUtf8Bytes = fourUtf8Bytes;
+    }
+
+    void indexWithVectors(byte[] buffer, int length) {
+        // Indexes the input with the vectorized code even if SWAR is currently used, so that it can be warmed up.
+        bitIndexes.reset();
+        carry(0, 0, 0, 0, 0, 0);
+        indexVectorBlocks(buffer, 0, length, false, true);
+    }
+
+    private void indexBlocks(byte[] buffer, int start, int length, boolean partial, boolean last) {
+        // Both implementations carry the same state, so the segments of an input can be indexed with either of them.
+        if (VectorUtils.useSwar()) {
+            indexSwar(buffer, start, length, partial, last);
+        } else {
+            indexVectorBlocks(buffer, start, length, partial, last);
+        }
+    }
+
+    private void indexVectorBlocks(byte[] buffer, int start, int length, boolean partial, boolean last) {
+        int vectorBitSize = vectorWidth.bitSize(length);
+        switch (vectorBitSize) {
+            case 128 -> index128(buffer, start, length, partial, last);
+            case 256 -> index256(buffer, start, length, partial, last);
+            case 512 -> index512(buffer, start, length, partial, last);
+            default -> throw new UnsupportedOperationException("Unsupported vector width: " + vectorBitSize);
+        }
+    }
+
+    private void index128(byte[] buffer, int start, int length, boolean partial, boolean last) {
+        long prevInString = carriedInString;
+        long prevEscaped = carriedEscaped;
+        long prevStructurals = 0;
+        long unescapedCharsError = carriedUnescapedCharsError;
+        long prevScalar = carriedScalar;
+        long utf8Errors = carriedUtf8Errors;
+        int prevFourUtf8Bytes = carriedFourUtf8Bytes;
+        long prevIncompleteUtf8 = Utf8Validator.incomplete(prevFourUtf8Bytes);
+
+        // Each iteration of the below loop processes four 128-bit chunks, so effectively it processes 512 bits at once.
+        int loopBound = start + SPECIES_512.loopBound(length);
+        int offset = start;
+        int blockIndex = start;
+        for (; offset < loopBound; offset += STEP_SIZE) {
+            ByteVector chunk0 = ByteVector.fromArray(SPECIES_128, buffer, offset);
+            ByteVector chunk1 = ByteVector.fromArray(SPECIES_128, buffer, offset + 16);
+            ByteVector chunk2 = ByteVector.fromArray(SPECIES_128, buffer, offset + 32);
+            ByteVector chunk3 = ByteVector.fromArray(SPECIES_128, buffer, offset + 48);
+
+            // UTF-8 validation
+            if (chunk0.or(chunk1).or(chunk2).or(chunk3).and(ALL_ASCII_MASK).compare(EQ, 0).allTrue()) {
+                utf8Errors |= prevIncompleteUtf8;
+                prevIncompleteUtf8 = 0;
+                prevFourUtf8Bytes = 0;
+            } else {
+                // Inlining the checks for four chunks would make this method too large for the JIT compiler, so the
+                // block is validated by a separate method that loads it again from the cache.
+                utf8Errors |= Utf8Validator.blockErrors(buffer, offset, prevFourUtf8Bytes);
+                prevFourUtf8Bytes = Utf8Validator.lastFourBytes(buffer, offset, offset + STEP_SIZE);
+                prevIncompleteUtf8 = Utf8Validator.incomplete(prevFourUtf8Bytes);
+            }
+
+            // string scanning
+            long backslash0 = chunk0.eq(BACKSLASH).toLong();
+            long backslash1 = chunk1.eq(BACKSLASH).toLong();
+            long backslash2 = chunk2.eq(BACKSLASH).toLong();
+            long backslash3 = chunk3.eq(BACKSLASH).toLong();
+            long backslash = backslash0 | (backslash1 << 16) | (backslash2 << 32) | (backslash3 << 48);
+
+            long escaped;
+            if (backslash == 0) {
+                escaped = prevEscaped;
+                prevEscaped = 0;
+            } else {
+                backslash &= ~prevEscaped;
+                long followsEscape = backslash << 1 | prevEscaped;
+                long oddSequenceStarts = backslash & ODD_BITS_MASK & ~followsEscape;
+
+                long sequencesStartingOnEvenBits = oddSequenceStarts + backslash;
+                // Here, we check if the unsigned addition above caused an overflow. If that's the case, we store 1 in prevEscaped.
+                // The formula used to detect overflow was taken from 'Hacker's Delight, Second Edition' by Henry S. Warren, Jr.,
+                // Chapter 2-13.
+                prevEscaped = ((oddSequenceStarts >>> 1) + (backslash >>> 1) + ((oddSequenceStarts & backslash) & 1)) >>> 63;
+
+                long invertMask = sequencesStartingOnEvenBits << 1;
+                escaped = (EVEN_BITS_MASK ^ invertMask) & followsEscape;
+            }
+
+            long unescaped0 = chunk0.compare(ULE, LAST_CONTROL_CHARACTER).toLong();
+            long unescaped1 = chunk1.compare(ULE, LAST_CONTROL_CHARACTER).toLong();
+            long unescaped2 = chunk2.compare(ULE, LAST_CONTROL_CHARACTER).toLong();
+            long unescaped3 = chunk3.compare(ULE, LAST_CONTROL_CHARACTER).toLong();
+            long unescaped = unescaped0 | (unescaped1 << 16) | (unescaped2 << 32) | (unescaped3 << 48);
+
+            long quote0 = chunk0.eq(QUOTE).toLong();
+            long quote1 = chunk1.eq(QUOTE).toLong();
+            long quote2 = chunk2.eq(QUOTE).toLong();
+            long quote3 = chunk3.eq(QUOTE).toLong();
+            long quote = (quote0 | (quote1 << 16) | (quote2 << 32) | (quote3 << 48)) & ~escaped;
+
+            long inString = prefixXor(quote) ^ prevInString;
+            prevInString = inString >> 63;
+
+            // characters classification
+            VectorShuffle<Byte> chunk0Low = chunk0.and(LOW_NIBBLE_MASK).toShuffle();
+            VectorShuffle<Byte> chunk1Low = chunk1.and(LOW_NIBBLE_MASK).toShuffle();
+            VectorShuffle<Byte> chunk2Low = chunk2.and(LOW_NIBBLE_MASK).toShuffle();
+            VectorShuffle<Byte> chunk3Low = chunk3.and(LOW_NIBBLE_MASK).toShuffle();
+
+            long whitespace0 = chunk0.eq(WHITESPACE_TABLE_128.rearrange(chunk0Low)).toLong();
+            long whitespace1 = chunk1.eq(WHITESPACE_TABLE_128.rearrange(chunk1Low)).toLong();
+            long whitespace2 = chunk2.eq(WHITESPACE_TABLE_128.rearrange(chunk2Low)).toLong();
+            long whitespace3 = chunk3.eq(WHITESPACE_TABLE_128.rearrange(chunk3Low)).toLong();
+            long whitespace = whitespace0 | (whitespace1 << 16) | (whitespace2 << 32) | (whitespace3 << 48);
+
+            ByteVector curlified0 = chunk0.or((byte) 0x20);
+            ByteVector curlified1 = chunk1.or((byte) 0x20);
+            ByteVector curlified2 = chunk2.or((byte) 0x20);
+            ByteVector curlified3 = chunk3.or((byte) 0x20);
+            long op0 = curlified0.eq(OP_TABLE_128.rearrange(chunk0Low)).toLong();
+            long op1 = curlified1.eq(OP_TABLE_128.rearrange(chunk1Low)).toLong();
+            long op2 = curlified2.eq(OP_TABLE_128.rearrange(chunk2Low)).toLong();
+            long op3 = curlified3.eq(OP_TABLE_128.rearrange(chunk3Low)).toLong();
+            long op = op0 | (op1 << 16) | (op2 << 32) | (op3 << 48);
+
+            // finish
+            long scalar = ~(op | whitespace);
+            long nonQuoteScalar = scalar & ~quote;
+            long followsNonQuoteScalar = nonQuoteScalar << 1 | prevScalar;
+            prevScalar = nonQuoteScalar >>> 63;
+            long potentialScalarStart = scalar & ~followsNonQuoteScalar;
+            long potentialStructuralStart = op | potentialScalarStart;
+            bitIndexes.write(blockIndex, prevStructurals);
+            blockIndex += STEP_SIZE;
+            prevStructurals = potentialStructuralStart & ~(inString ^ quote);
+            unescapedCharsError |= unescaped & inString;
+        }
+
+        if (!last) {
+            bitIndexes.write(blockIndex, prevStructurals);
+            carry(prevInString, prevEscaped, prevScalar, unescapedCharsError, utf8Errors, prevFourUtf8Bytes);
+            return;
+        }
+
+        byte[] remainder = remainder(buffer, start + length, blockIndex);
+        ByteVector chunk0 = ByteVector.fromArray(SPECIES_128, remainder, 0);
+        ByteVector chunk1 = ByteVector.fromArray(SPECIES_128, remainder, 16);
+        ByteVector chunk2 = ByteVector.fromArray(SPECIES_128, remainder, 32);
+        ByteVector chunk3 = ByteVector.fromArray(SPECIES_128, remainder, 48);
+
+        // UTF-8 validation
+        if (chunk0.or(chunk1).or(chunk2).or(chunk3).and(ALL_ASCII_MASK).compare(EQ, 0).allTrue()) {
+            utf8Errors |= prevIncompleteUtf8;
+        } else {
+            utf8Errors |= Utf8Validator.blockErrors(remainder, 0, prevFourUtf8Bytes);
+            utf8Errors |= Utf8Validator.incomplete(Utf8Validator.lastFourBytes(remainder, 0, STEP_SIZE));
+        }
+
+        // string scanning
+        long backslash0 = chunk0.eq(BACKSLASH).toLong();
+        long backslash1 = chunk1.eq(BACKSLASH).toLong();
+        long backslash2 = chunk2.eq(BACKSLASH).toLong();
+        long backslash3 = chunk3.eq(BACKSLASH).toLong();
+        long backslash = backslash0 | (backslash1 << 16) | (backslash2 << 32) | (backslash3 << 48);
+
+        long escaped;
+        if (backslash == 0) {
+            escaped = prevEscaped;
+        } else {
+            backslash &= ~prevEscaped;
+            long followsEscape = backslash << 1 | prevEscaped;
+            long oddSequenceStarts = backslash & ODD_BITS_MASK & ~followsEscape;
+
+            long sequencesStartingOnEvenBits = oddSequenceStarts + backslash;
+            long invertMask = sequencesStartingOnEvenBits << 1;
+            escaped = (EVEN_BITS_MASK ^ invertMask) & followsEscape;
+        }
+
+        long unescaped0 = chunk0.compare(ULE, LAST_CONTROL_CHARACTER).toLong();
+        long unescaped1 = chunk1.compare(ULE, LAST_CONTROL_CHARACTER).toLong();
+        long unescaped2 = chunk2.compare(ULE, LAST_CONTROL_CHARACTER).toLong();
+        long unescaped3 = chunk3.compare(ULE, LAST_CONTROL_CHARACTER).toLong();
+        long unescaped = unescaped0 | (unescaped1 << 16) | (unescaped2 << 32) | (unescaped3 << 48);
+
+        long quote0 = chunk0.eq(QUOTE).toLong();
+        long quote1 = chunk1.eq(QUOTE).toLong();
+        long quote2 = chunk2.eq(QUOTE).toLong();
+        long quote3 = chunk3.eq(QUOTE).toLong();
+        long quote = (quote0 | (quote1 << 16) | (quote2 << 32) | (quote3 << 48)) & ~escaped;
+
+        long inString = prefixXor(quote) ^ prevInString;
+        prevInString = inString >> 63;
+
+        // characters classification
+        VectorShuffle<Byte> chunk0Low = chunk0.and(LOW_NIBBLE_MASK).toShuffle();
+        VectorShuffle<Byte> chunk1Low = chunk1.and(LOW_NIBBLE_MASK).toShuffle();
+        VectorShuffle<Byte> chunk2Low = chunk2.and(LOW_NIBBLE_MASK).toShuffle();
+        VectorShuffle<Byte> chunk3Low = chunk3.and(LOW_NIBBLE_MASK).toShuffle();
+
+        long whitespace0 = chunk0.eq(WHITESPACE_TABLE_128.rearrange(chunk0Low)).toLong();
+        long whitespace1 = chunk1.eq(WHITESPACE_TABLE_128.rearrange(chunk1Low)).toLong();
+        long whitespace2 = chunk2.eq(WHITESPACE_TABLE_128.rearrange(chunk2Low)).toLong();
+        long whitespace3 = chunk3.eq(WHITESPACE_TABLE_128.rearrange(chunk3Low)).toLong();
+        long whitespace = whitespace0 | (whitespace1 << 16) | (whitespace2 << 32) | (whitespace3 << 48);
+
+        ByteVector curlified0 = chunk0.or((byte) 0x20);
+        ByteVector curlified1 = chunk1.or((byte) 0x20);
+        ByteVector curlified2 = chunk2.or((byte) 0x20);
+        ByteVector curlified3 = chunk3.or((byte) 0x20);
+        long op0 = curlified0.eq(OP_TABLE_128.rearrange(chunk0Low)).toLong();
+        long op1 = curlified1.eq(OP_TABLE_128.rearrange(chunk1Low)).toLong();
+        long op2 = curlified2.eq(OP_TABLE_128.rearrange(chunk2Low)).toLong();
+        long op3 = curlified3.eq(OP_TABLE_128.rearrange(chunk3Low)).toLong();
+        long op = op0 | (op1 << 16) | (op2 << 32) | (op3 << 48);
+
+        // finish
+        long scalar = ~(op | whitespace);
+        long nonQuoteScalar = scalar & ~quote;
+        long followsNonQuoteScalar = nonQuoteScalar << 1 | prevScalar;
+        long potentialScalarStart = scalar & ~followsNonQuoteScalar;
+        long potentialStructuralStart = op | potentialScalarStart;
+        bitIndexes.write(blockIndex, prevStructurals);
+        blockIndex += STEP_SIZE;
+        prevStructurals = potentialStructuralStart & ~(inString ^ quote);
+        unescapedCharsError |= unescaped & inString;
+        bitIndexes.write(blockIndex, prevStructurals);
+        bitIndexes.finish();
+        if (utf8Errors != 0) {
+            throw new JsonParsingException("The input is not valid UTF-8");
+        }
+        if (prevInString != 0 && !partial) {
+            throw new JsonParsingException("Unclosed string. A string is opened, but never closed.");
+        }
+        if (unescapedCharsError != 0) {
+            throw new JsonParsingException("Unescaped characters. Within strings, there are characters that should be escaped.");
         }
     }
 
-    private void index256(byte[] buffer, int length) {
-        long prevInString = 0;
-        long prevEscaped = 0;
+    private void index256(byte[] buffer, int start, int length, boolean partial, boolean last) {
+        long prevInString = carriedInString;
+        long prevEscaped = carriedEscaped;
         long prevStructurals = 0;
-        long unescapedCharsError = 0;
-        long prevScalar = 0;
+        long unescapedCharsError = carriedUnescapedCharsError;
+        long prevScalar = carriedScalar;
+        long utf8Errors = carriedUtf8Errors;
+        int prevFourUtf8Bytes = carriedFourUtf8Bytes;
+        long prevIncompleteUtf8 = Utf8Validator.incomplete(prevFourUtf8Bytes);
 
         // Using SPECIES_512 here is not a mistake. Each iteration of the below loop processes two 256-bit chunks,
         // so effectively it processes 512 bits at once.
-        int loopBound = SPECIES_512.loopBound(length);
-        int offset = 0;
-        int blockIndex = 0;
+        int loopBound = start + SPECIES_512.loopBound(length);
+        int offset = start;
+        int blockIndex = start;
         for (; offset < loopBound; offset += STEP_SIZE) {
             ByteVector chunk0 = ByteVector.fromArray(SPECIES_256, buffer, offset);
             ByteVector chunk1 = ByteVector.fromArray(SPECIES_256, buffer, offset + 32);
 
+            // UTF-8 validation
+            if (chunk0.or(chunk1).and(ALL_ASCII_MASK).compare(EQ, 0).allTrue()) {
+                utf8Errors |= prevIncompleteUtf8;
+                // ASCII bytes preceding a chunk don't affect its validation, so they are the same as no bytes at all.
+                prevIncompleteUtf8 = 0;
+                prevFourUtf8Bytes = 0;
+            } else {
+                // The same checks as in Utf8Validator. They aren't extracted to a method, because this one is too
+                // large for the JIT compiler to inline it, and vectors passed to a method that isn't inlined are boxed.
+                IntVector chunk0AsInts = chunk0.reinterpretAsInts();
+                IntVector chunk0WithPreviousFourBytes = chunk0AsInts
+                        .rearrange(FOUR_BYTES_FORWARD_SHIFT_256)
+                        .withLane(0, prevFourUtf8Bytes);
+                ByteVector previousOneByte0 = chunk0AsInts
+                        .lanewise(LSHL, Byte.SIZE)
+                        .or(chunk0WithPreviousFourBytes.lanewise(LSHR, THREE_BYTES_SIZE))
+                        .reinterpretAsBytes();
+                ByteVector byte2HighNibbles0 = chunk0AsInts.lanewise(LSHR, 4)
+                        .reinterpretAsBytes()
+                        .and(LOW_NIBBLE_MASK);
+                ByteVector byte1HighNibbles0 = previousOneByte0.reinterpretAsInts()
+                        .lanewise(LSHR, 4)
+                        .reinterpretAsBytes()
+                        .and(LOW_NIBBLE_MASK);
+                ByteVector byte1LowNibbles0 = previousOneByte0.and(LOW_NIBBLE_MASK);
+                ByteVector firstCheck0 = byte1HighNibbles0.selectFrom(BYTE_1_HIGH_LOOKUP_256)
+                        .and(byte1LowNibbles0.selectFrom(BYTE_1_LOW_LOOKUP_256))
+                        .and(byte2HighNibbles0.selectFrom(BYTE_2_HIGH_LOOKUP_256));
+                ByteVector previousTwoBytes0 = chunk0AsInts
+                        .lanewise(LSHL, TWO_BYTES_SIZE)
+                        .or(chunk0WithPreviousFourBytes.lanewise(LSHR, TWO_BYTES_SIZE))
+                        .reinterpretAsBytes();
+                ByteVector previousThreeBytes0 = chunk0AsInts
+                        .lanewise(LSHL, THREE_BYTES_SIZE)
+                        .or(chunk0WithPreviousFourBytes.lanewise(LSHR, Byte.SIZE))
+                        .reinterpretAsBytes();
+                VectorMask<Byte> is3Or4ByteLead0 = previousTwoBytes0.compare(UGT, MAX_2_LEADING_BYTE)
+                        .or(previousThreeBytes0.compare(UGT, MAX_3_LEADING_BYTE));
+                utf8Errors |= firstCheck0.add((byte) 0x80, is3Or4ByteLead0).compare(NE, 0).toLong();
+                IntVector chunk1AsInts = chunk1.reinterpretAsInts();
+                IntVector chunk1WithPreviousFourBytes = chunk1AsInts
+                        .rearrange(FOUR_BYTES_FORWARD_SHIFT_256)
+                        .withLane(0, chunk0AsInts.lane(IntVector.SPECIES_256.length() - 1));
+                ByteVector previousOneByte1 = chunk1AsInts
+                        .lanewise(LSHL, Byte.SIZE)
+                        .or(chunk1WithPreviousFourBytes.lanewise(LSHR, THREE_BYTES_SIZE))
+                        .reinterpretAsBytes();
+                ByteVector byte2HighNibbles1 = chunk1AsInts.lanewise(LSHR, 4)
+                        .reinterpretAsBytes()
+                        .and(LOW_NIBBLE_MASK);
+                ByteVector byte1HighNibbles1 = previousOneByte1.reinterpretAsInts()
+                        .lanewise(LSHR, 4)
+                        .reinterpretAsBytes()
+                        .and(LOW_NIBBLE_MASK);
+                ByteVector byte1LowNibbles1 = previousOneByte1.and(LOW_NIBBLE_MASK);
+                ByteVector firstCheck1 = byte1HighNibbles1.selectFrom(BYTE_1_HIGH_LOOKUP_256)
+                        .and(byte1LowNibbles1.selectFrom(BYTE_1_LOW_LOOKUP_256))
+                        .and(byte2HighNibbles1.selectFrom(BYTE_2_HIGH_LOOKUP_256));
+                ByteVector previousTwoBytes1 = chunk1AsInts
+                        .lanewise(LSHL, TWO_BYTES_SIZE)
+                        .or(chunk1WithPreviousFourBytes.lanewise(LSHR, TWO_BYTES_SIZE))
+                        .reinterpretAsBytes();
+                ByteVector previousThreeBytes1 = chunk1AsInts
+                        .lanewise(LSHL, THREE_BYTES_SIZE)
+                        .or(chunk1WithPreviousFourBytes.lanewise(LSHR, Byte.SIZE))
+                        .reinterpretAsBytes();
+                VectorMask<Byte> is3Or4ByteLead1 = previousTwoBytes1.compare(UGT, MAX_2_LEADING_BYTE)
+                        .or(previousThreeBytes1.compare(UGT, MAX_3_LEADING_BYTE));
+                utf8Errors |= firstCheck1.add((byte) 0x80, is3Or4ByteLead1).compare(NE, 0).toLong();
+                prevIncompleteUtf8 = chunk1.compare(UGE, INCOMPLETE_CHECK_256).toLong();
+                prevFourUtf8Bytes = chunk1AsInts.lane(IntVector.SPECIES_256.length() - 1);
+            }
+
             // string scanning
             long backslash0 = chunk0.eq(BACKSLASH).toLong();
             long backslash1 = chunk1.eq(BACKSLASH).toLong();
@@ -103,14 +538,14 @@ class StructuralIndexer {
             VectorShuffle<Byte> chunk0Low = chunk0.and(LOW_NIBBLE_MASK).toShuffle();
             VectorShuffle<Byte> chunk1Low = chunk1.and(LOW_NIBBLE_MASK).toShuffle();
 
-            long whitespace0 = chunk0.eq(WHITESPACE_TABLE.rearrange(chunk0Low)).toLong();
-            long whitespace1 = chunk1.eq(WHITESPACE_TABLE.rearrange(chunk1Low)).toLong();
+            long whitespace0 = chunk0.eq(WHITESPACE_TABLE_256.rearrange(chunk0Low)).toLong();
+            long whitespace1 = chunk1.eq(WHITESPACE_TABLE_256.rearrange(chunk1Low)).toLong();
             long whitespace = whitespace0 | (whitespace1 << 32);
 
             ByteVector curlified0 = chunk0.or((byte) 0x20);
             ByteVector curlified1 = chunk1.or((byte) 0x20);
-            long op0 = curlified0.eq(OP_TABLE.rearrange(chunk0Low)).toLong();
-            long op1 = curlified1.eq(OP_TABLE.rearrange(chunk1Low)).toLong();
+            long op0 = curlified0.eq(OP_TABLE_256.rearrange(chunk0Low)).toLong();
+            long op1 = curlified1.eq(OP_TABLE_256.rearrange(chunk1Low)).toLong();
             long op = op0 | (op1 << 32);
 
             // finish
@@ -126,10 +561,24 @@ class StructuralIndexer {
             unescapedCharsError |= unescaped & inString;
         }
 
-        byte[] remainder = remainder(buffer, length, blockIndex);
+        if (!last) {
+            bitIndexes.write(blockIndex, prevStructurals);
+            carry(prevInString, prevEscaped, prevScalar, unescapedCharsError, utf8Errors, prevFourUtf8Bytes);
+            return;
+        }
+
+        byte[] remainder = remainder(buffer, start + length, blockIndex);
         ByteVector chunk0 = ByteVector.fromArray(SPECIES_256, remainder, 0);
         ByteVector chunk1 = ByteVector.fromArray(SPECIES_256, remainder, 32);
 
+        // UTF-8 validation
+        if (chunk0.or(chunk1).and(ALL_ASCII_MASK).compare(EQ, 0).allTrue()) {
+            utf8Errors |= prevIncompleteUtf8;
+        } else {
+            utf8Errors |= Utf8Validator.blockErrors(remainder, 0, prevFourUtf8Bytes);
+            utf8Errors |= Utf8Validator.incomplete(Utf8Validator.lastFourBytes(remainder, 0, STEP_SIZE));
+        }
+
         // string scanning
         long backslash0 = chunk0.eq(BACKSLASH).toLong();
         long backslash1 = chunk1.eq(BACKSLASH).toLong();
@@ -163,14 +612,14 @@ class StructuralIndexer {
         VectorShuffle<Byte> chunk0Low = chunk0.and(LOW_NIBBLE_MASK).toShuffle();
         VectorShuffle<Byte> chunk1Low = chunk1.and(LOW_NIBBLE_MASK).toShuffle();
 
-        long whitespace0 = chunk0.eq(WHITESPACE_TABLE.rearrange(chunk0Low)).toLong();
-        long whitespace1 = chunk1.eq(WHITESPACE_TABLE.rearrange(chunk1Low)).toLong();
+        long whitespace0 = chunk0.eq(WHITESPACE_TABLE_256.rearrange(chunk0Low)).toLong();
+        long whitespace1 = chunk1.eq(WHITESPACE_TABLE_256.rearrange(chunk1Low)).toLong();
         long whitespace = whitespace0 | (whitespace1 << 32);
 
         ByteVector curlified0 = chunk0.or((byte) 0x20);
         ByteVector curlified1 = chunk1.or((byte) 0x20);
-        long op0 = curlified0.eq(OP_TABLE.rearrange(chunk0Low)).toLong();
-        long op1 = curlified1.eq(OP_TABLE.rearrange(chunk1Low)).toLong();
+        long op0 = curlified0.eq(OP_TABLE_256.rearrange(chunk0Low)).toLong();
+        long op1 = curlified1.eq(OP_TABLE_256.rearrange(chunk1Low)).toLong();
         long op = op0 | (op1 << 32);
 
         // finish
@@ -185,7 +634,10 @@ class StructuralIndexer {
         unescapedCharsError |= unescaped & inString;
         bitIndexes.write(blockIndex, prevStructurals);
         bitIndexes.finish();
-        if (prevInString != 0) {
+        if (utf8Errors != 0) {
+            throw new JsonParsingException("The input is not valid UTF-8");
+        }
+        if (prevInString != 0 && !partial) {
             throw new JsonParsingException("Unclosed string. A string is opened, but never closed.");
         }
         if (unescapedCharsError != 0) {
@@ -193,19 +645,65 @@ class StructuralIndexer {
         }
     }
 
-    private void index512(byte[] buffer, int length) {
-        long prevInString = 0;
-        long prevEscaped = 0;
+    private void index512(byte[] buffer, int start, int length, boolean partial, boolean last) {
+        long prevInString = carriedInString;
+        long prevEscaped = carriedEscaped;
         long prevStructurals = 0;
-        long unescapedCharsError = 0;
-        long prevScalar = 0;
-
-        int loopBound = SPECIES_512.loopBound(length);
-        int offset = 0;
-        int blockIndex = 0;
+        long unescapedCharsError = carriedUnescapedCharsError;
+        long prevScalar = carriedScalar;
+        long utf8Errors = carriedUtf8Errors;
+        int prevFourUtf8Bytes = carriedFourUtf8Bytes;
+        long prevIncompleteUtf8 = Utf8Validator.incomplete(prevFourUtf8Bytes);
+
+        int loopBound = start + SPECIES_512.loopBound(length);
+        int offset = start;
+        int blockIndex = start;
         for (; offset < loopBound; offset += STEP_SIZE) {
             ByteVector chunk = ByteVector.fromArray(SPECIES_512, buffer, offset);
 
+            // UTF-8 validation
+            if (chunk.and(ALL_ASCII_MASK).compare(EQ, 0).allTrue()) {
+                utf8Errors |= prevIncompleteUtf8;
+                // ASCII bytes preceding a chunk don't affect its validation, so they are the same as no bytes at all.
+                prevIncompleteUtf8 = 0;
+                prevFourUtf8Bytes = 0;
+            } else {
+                // The same checks as in Utf8Validator. They aren't extracted to a method, because this one is too
+                // large for the JIT compiler to inline it, and vectors passed to a method that isn't inlined are boxed.
+                IntVector chunkAsInts = chunk.reinterpretAsInts();
+                IntVector chunkWithPreviousFourBytes = chunkAsInts
+                        .rearrange(FOUR_BYTES_FORWARD_SHIFT_512)
+                        .withLane(0, prevFourUtf8Bytes);
+                ByteVector previousOneByte = chunkAsInts
+                        .lanewise(LSHL, Byte.SIZE)
+                        .or(chunkWithPreviousFourBytes.lanewise(LSHR, THREE_BYTES_SIZE))
+                        .reinterpretAsBytes();
+                ByteVector byte2HighNibbles = chunkAsInts.lanewise(LSHR, 4)
+                        .reinterpretAsBytes()
+                        .and(LOW_NIBBLE_MASK);
+                ByteVector byte1HighNibbles = previousOneByte.reinterpretAsInts()
+                        .lanewise(LSHR, 4)
+                        .reinterpretAsBytes()
+                        .and(LOW_NIBBLE_MASK);
+                ByteVector byte1LowNibbles = previousOneByte.and(LOW_NIBBLE_MASK);
+                ByteVector firstCheck = byte1HighNibbles.selectFrom(BYTE_1_HIGH_LOOKUP_512)
+                        .and(byte1LowNibbles.selectFrom(BYTE_1_LOW_LOOKUP_512))
+                        .and(byte2HighNibbles.selectFrom(BYTE_2_HIGH_LOOKUP_512));
+                ByteVector previousTwoBytes = chunkAsInts
+                        .lanewise(LSHL, TWO_BYTES_SIZE)
+                        .or(chunkWithPreviousFourBytes.lanewise(LSHR, TWO_BYTES_SIZE))
+                        .reinterpretAsBytes();
+                ByteVector previousThreeBytes = chunkAsInts
+                        .lanewise(LSHL, THREE_BYTES_SIZE)
+                        .or(chunkWithPreviousFourBytes.lanewise(LSHR, Byte.SIZE))
+                        .reinterpretAsBytes();
+                VectorMask<Byte> is3Or4ByteLead = previousTwoBytes.compare(UGT, MAX_2_LEADING_BYTE)
+                        .or(previousThreeBytes.compare(UGT, MAX_3_LEADING_BYTE));
+                utf8Errors |= firstCheck.add((byte) 0x80, is3Or4ByteLead).compare(NE, 0).toLong();
+                prevIncompleteUtf8 = chunk.compare(UGE, INCOMPLETE_CHECK_512).toLong();
+                prevFourUtf8Bytes = chunkAsInts.lane(IntVector.SPECIES_512.length() - 1);
+            }
+
             // string scanning
             long backslash = chunk.eq(BACKSLASH).toLong();
 
@@ -235,9 +733,9 @@ class StructuralIndexer {
 
             // characters classification
             VectorShuffle<Byte> chunkLow = chunk.and(LOW_NIBBLE_MASK).toShuffle();
-            long whitespace = chunk.eq(WHITESPACE_TABLE.rearrange(chunkLow)).toLong();
+            long whitespace = chunk.eq(WHITESPACE_TABLE_512.rearrange(chunkLow)).toLong();
             ByteVector curlified = chunk.or((byte) 0x20);
-            long op = curlified.eq(OP_TABLE.rearrange(chunkLow)).toLong();
+            long op = curlified.eq(OP_TABLE_512.rearrange(chunkLow)).toLong();
 
             // finish
             long scalar = ~(op | whitespace);
@@ -246,15 +744,29 @@ class StructuralIndexer {
             prevScalar = nonQuoteScalar >>> 63;
             long potentialScalarStart = scalar & ~followsNonQuoteScalar;
             long potentialStructuralStart = op | potentialScalarStart;
-            bitIndexes.write(blockIndex, prevStructurals);
+            bitIndexes.writeWithCompress(blockIndex, prevStructurals);
             blockIndex += STEP_SIZE;
             prevStructurals = potentialStructuralStart & ~(inString ^ quote);
             unescapedCharsError |= unescaped & inString;
         }
 
-        byte[] remainder = remainder(buffer, length, blockIndex);
+        if (!last) {
+            bitIndexes.writeWithCompress(blockIndex, prevStructurals);
+            carry(prevInString, prevEscaped, prevScalar, unescapedCharsError, utf8Errors, prevFourUtf8Bytes);
+            return;
+        }
+
+        byte[] remainder = remainder(buffer, start + length, blockIndex);
         ByteVector chunk = ByteVector.fromArray(SPECIES_512, remainder, 0);
 
+        // UTF-8 validation
+        if (chunk.and(ALL_ASCII_MASK).compare(EQ, 0).allTrue()) {
+            utf8Errors |= prevIncompleteUtf8;
+        } else {
+            utf8Errors |= Utf8Validator.blockErrors(remainder, 0, prevFourUtf8Bytes);
+            utf8Errors |= Utf8Validator.incomplete(Utf8Validator.lastFourBytes(remainder, 0, STEP_SIZE));
+        }
+
         // string scanning
         long backslash = chunk.eq(BACKSLASH).toLong();
 
@@ -278,9 +790,9 @@ class StructuralIndexer {
 
         // characters classification
         VectorShuffle<Byte> chunkLow = chunk.and(LOW_NIBBLE_MASK).toShuffle();
-        long whitespace = chunk.eq(WHITESPACE_TABLE.rearrange(chunkLow)).toLong();
+        long whitespace = chunk.eq(WHITESPACE_TABLE_512.rearrange(chunkLow)).toLong();
         ByteVector curlified = chunk.or((byte) 0x20);
-        long op = curlified.eq(OP_TABLE.rearrange(chunkLow)).toLong();
+        long op = curlified.eq(OP_TABLE_512.rearrange(chunkLow)).toLong();
 
         // finish
         long scalar = ~(op | whitespace);
@@ -288,13 +800,129 @@ class StructuralIndexer {
         long followsNonQuoteScalar = nonQuoteScalar << 1 | prevScalar;
         long potentialScalarStart = scalar & ~followsNonQuoteScalar;
         long potentialStructuralStart = op | potentialScalarStart;
-        bitIndexes.write(blockIndex, prevStructurals);
+        bitIndexes.writeWithCompress(blockIndex, prevStructurals);
         blockIndex += STEP_SIZE;
         prevStructurals = potentialStructuralStart & ~(inString ^ quote);
         unescapedCharsError |= unescaped & inString;
+        bitIndexes.writeWithCompress(blockIndex, prevStructurals);
+        bitIndexes.finish();
+        if (utf8Errors != 0) {
+            throw new JsonParsingException("The input is not valid UTF-8");
+        }
+        if (prevInString != 0 && !partial) {
+            throw new JsonParsingException("Unclosed string. A string is opened, but never closed.");
+        }
+        if (unescapedCharsError != 0) {
+            throw new JsonParsingException("Unescaped characters. Within strings, there are characters that should be escaped.");
+        }
+    }
+
+    private void indexSwar(byte[] buffer, int start, int length, boolean partial, boolean last) {
+        long prevInString = carriedInString;
+        long prevEscaped = carriedEscaped;
+        long prevStructurals = 0;
+        long unescapedCharsError = carriedUnescapedCharsError;
+        long prevScalar = carriedScalar;
+        long utf8Errors = carriedUtf8Errors;
+        int prevFourUtf8Bytes = carriedFourUtf8Bytes;
+        long prevIncompleteUtf8 = Utf8Validator.incomplete(prevFourUtf8Bytes);
+
+        // Each block is processed as eight words, and the bits produced for each word are merged into 64-bit masks.
+        // Unlike the vectorized variants, the last block is processed by the same loop, as the code isn't unrolled.
+        int loopBound = start + length / STEP_SIZE * STEP_SIZE;
+        int offset = start;
+        int blockIndex = start;
+        while (offset < loopBound || last) {
+            boolean lastBlock = offset >= loopBound;
+            byte[] block = lastBlock ? remainder(buffer, start + length, blockIndex) : buffer;
+            int blockOffset = lastBlock ? 0 : offset;
+
+            long backslash = 0;
+            long quote = 0;
+            long unescaped = 0;
+            long whitespace = 0;
+            long op = 0;
+            long nonAscii = 0;
+            for (int i = 0; i < STEP_SIZE / Long.BYTES; i++) {
+                long word = SwarUtils.load(block, blockOffset + i * Long.BYTES);
+                int shift = i * Long.BYTES;
+                nonAscii |= word;
+                backslash |= SwarUtils.toBitmask(SwarUtils.eq(word, BACKSLASHES)) << shift;
+                quote |= SwarUtils.toBitmask(SwarUtils.eq(word, QUOTES)) << shift;
+                unescaped |= SwarUtils.toBitmask(SwarUtils.lessThan(word, SPACE)) << shift;
+                long whitespaceBits = SwarUtils.eq(word, SPACES) | SwarUtils.eq(word, TABS)
+                        | SwarUtils.eq(word, LINE_FEEDS) | SwarUtils.eq(word, CARRIAGE_RETURNS);
+                whitespace |= SwarUtils.toBitmask(whitespaceBits) << shift;
+                // The same classification as the one with the OP tables, which matches also the control characters that
+                // become one of the operators after curlifying.
+                long curlified = word | SPACES;
+                long opBits = SwarUtils.eq(curlified, COLONS) | SwarUtils.eq(curlified, OPENING_BRACES)
+                        | SwarUtils.eq(curlified, COMMAS) | SwarUtils.eq(curlified, CLOSING_BRACES);
+                op |= SwarUtils.toBitmask(opBits) << shift;
+            }
+
+            // UTF-8 validation
+            if (SwarUtils.isAscii(nonAscii)) {
+                utf8Errors |= prevIncompleteUtf8;
+                prevIncompleteUtf8 = 0;
+                prevFourUtf8Bytes = 0;
+            } else {
+                utf8Errors |= Utf8Validator.scalarErrors(block, blockOffset, blockOffset + STEP_SIZE, prevFourUtf8Bytes);
+                prevFourUtf8Bytes = Utf8Validator.lastFourBytes(block, blockOffset, blockOffset + STEP_SIZE);
+                prevIncompleteUtf8 = Utf8Validator.incomplete(prevFourUtf8Bytes);
+            }
+
+            // string scanning
+            long escaped;
+            if (backslash == 0) {
+                escaped = prevEscaped;
+                prevEscaped = 0;
+            } else {
+                backslash &= ~prevEscaped;
+                long followsEscape = backslash << 1 | prevEscaped;
+                long oddSequenceStarts = backslash & ODD_BITS_MASK & ~followsEscape;
+
+                long sequencesStartingOnEvenBits = oddSequenceStarts + backslash;
+                prevEscaped = ((oddSequenceStarts >>> 1) + (backslash >>> 1) + ((oddSequenceStarts & backslash) & 1)) >>> 63;
+
+                long invertMask = sequencesStartingOnEvenBits << 1;
+                escaped = (EVEN_BITS_MASK ^ invertMask) & followsEscape;
+            }
+
+            quote &= ~escaped;
+            long inString = prefixXor(quote) ^ prevInString;
+            prevInString = inString >> 63;
+
+            // finish
+            long scalar = ~(op | whitespace);
+            long nonQuoteScalar = scalar & ~quote;
+            long followsNonQuoteScalar = nonQuoteScalar << 1 | prevScalar;
+            prevScalar = nonQuoteScalar >>> 63;
+            long potentialScalarStart = scalar & ~followsNonQuoteScalar;
+            long potentialStructuralStart = op | potentialScalarStart;
+            bitIndexes.write(blockIndex, prevStructurals);
+            blockIndex += STEP_SIZE;
+            prevStructurals = potentialStructuralStart & ~(inString ^ quote);
+            unescapedCharsError |= unescaped & inString;
+
+            if (lastBlock) {
+                break;
+            }
+            offset += STEP_SIZE;
+        }
+
+        if (!last) {
+            bitIndexes.write(blockIndex, prevStructurals);
+            carry(prevInString, prevEscaped, prevScalar, unescapedCharsError, utf8Errors, prevFourUtf8Bytes);
+            return;
+        }
+
         bitIndexes.write(blockIndex, prevStructurals);
         bitIndexes.finish();
-        if (prevInString != 0) {
+        if ((utf8Errors | prevIncompleteUtf8) != 0) {
+            throw new JsonParsingException("The input is not valid UTF-8");
+        }
+        if (prevInString != 0 && !partial) {
             throw new JsonParsingException("Unclosed string. A string is opened, but never closed.");
         }
         if (unescapedCharsError != 0) {
@@ -302,13 +930,13 @@ class StructuralIndexer {
         }
     }
 
-    private byte[] remainder(byte[] buffer, int length, int idx) {
+    private byte[] remainder(byte[] buffer, int end, int idx) {
         System.arraycopy(LAST_BLOCK_SPACES, 0, lastBlock, 0, lastBlock.length);
-        System.arraycopy(buffer, idx, lastBlock, 0, length - idx);
+        System.arraycopy(buffer, idx, lastBlock, 0, end - idx);
         return lastBlock;
     }
 
-    private static long prefixXor(long bitmask) {
+    static long prefixXor(long bitmask) {
         bitmask ^= bitmask << 1;
         bitmask ^= bitmask << 2;
         bitmask ^= bitmask << 4;
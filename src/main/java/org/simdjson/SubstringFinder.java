@@ -0,0 +1,90 @@
+package org.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+// Finds occurrences of a byte pattern. The first and the last byte of the pattern are compared with all positions of
+// a vector at once, and only the positions where both of them match are compared with the whole pattern. For patterns
+// longer than a single byte, it's rare that both of them match by chance, so the full comparison is rarely done.
+class SubstringFinder {
+
+    private static final VectorSpecies<Byte> SPECIES = VectorUtils.BYTE_SPECIES;
+
+    private final byte[] pattern;
+    private final byte firstByte;
+    private final byte lastByte;
+    private final long firstBytes;
+    private final long lastBytes;
+
+    SubstringFinder(byte[] pattern) {
+        if (pattern.length == 0) {
+            throw new IllegalArgumentException("The pattern cannot be empty.");
+        }
+        this.pattern = pattern.clone();
+        this.firstByte = pattern[0];
+        this.lastByte = pattern[pattern.length - 1];
+        this.firstBytes = SwarUtils.broadcast(firstByte);
+        this.lastBytes = SwarUtils.broadcast(lastByte);
+    }
+
+    int length() {
+        return pattern.length;
+    }
+
+    int indexOf(byte[] buffer, int from, int to) {
+        // Returns the position of the first occurrence that starts at or after from and ends at or before to, or -1.
+        // The bytes after to can be read, but they are never a part of a returned occurrence.
+        int lastStart = to - pattern.length;
+        int pos = from;
+        if (VectorUtils.useSwar()) {
+            int loopBound = buffer.length - pattern.length + 1 - Long.BYTES;
+            for (; pos <= lastStart && pos <= loopBound; pos += Long.BYTES) {
+                long first = SwarUtils.eq(SwarUtils.load(buffer, pos), firstBytes);
+                long last = SwarUtils.eq(SwarUtils.load(buffer, pos + pattern.length - 1), lastBytes);
+                int idx = verify(buffer, pos, SwarUtils.toBitmask(first & last), lastStart);
+                if (idx != Integer.MAX_VALUE) {
+                    return idx;
+                }
+            }
+        } else {
+            int loopBound = buffer.length - pattern.length + 1 - SPECIES.length();
+            for (; pos <= lastStart && pos <= loopBound; pos += SPECIES.length()) {
+                ByteVector first = ByteVector.fromArray(SPECIES, buffer, pos);
+                ByteVector last = ByteVector.fromArray(SPECIES, buffer, pos + pattern.length - 1);
+                long candidates = first.eq(firstByte).and(last.eq(lastByte)).toLong();
+                int idx = verify(buffer, pos, candidates, lastStart);
+                if (idx != Integer.MAX_VALUE) {
+                    return idx;
+                }
+            }
+        }
+        for (; pos <= lastStart; pos++) {
+            if (matches(buffer, pos)) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    private int verify(byte[] buffer, int pos, long candidates, int lastStart) {
+        // Returns the first candidate that matches, -1 if the candidates reach past the last start, or
+        // Integer.MAX_VALUE if none of them matches, so that the search goes on.
+        while (candidates != 0) {
+            int idx = pos + Long.numberOfTrailingZeros(candidates);
+            if (idx > lastStart) {
+                return -1;
+            }
+            if (matches(buffer, idx)) {
+                return idx;
+            }
+            candidates &= candidates - 1;
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private boolean matches(byte[] buffer, int idx) {
+        return Arrays.equals(buffer, idx, idx + pattern.length, pattern, 0, pattern.length);
+    }
+}
@@ -0,0 +1,52 @@
+package org.simdjson;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+import static java.lang.invoke.MethodHandles.byteArrayViewVarHandle;
+
+// SWAR (SIMD within a register) treats each byte of a long as a separate lane. The operations below produce a mask
+// with the highest bit of each matching byte set. All of them are exact, i.e., a carry or a borrow never crosses
+// a byte boundary.
+class SwarUtils {
+
+    // Words are loaded in little-endian order, so the first byte is the lowest one, and bit i of a bitmask
+    // corresponds to byte i, as in bitmasks produced by vectors.
+    private static final VarHandle VAR_HANDLE_LONG = byteArrayViewVarHandle(Long.TYPE.arrayType(), ByteOrder.LITTLE_ENDIAN);
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long ONES = 0x0101010101010101L;
+    // Gathers the highest bits of all bytes in the highest byte of the product.
+    private static final long BITMASK_MULTIPLIER = 0x0002040810204081L;
+
+    static long load(byte[] buffer, int offset) {
+        return (long) VAR_HANDLE_LONG.get(buffer, offset);
+    }
+
+    static void store(byte[] buffer, int offset, long word) {
+        VAR_HANDLE_LONG.set(buffer, offset, word);
+    }
+
+    static long broadcast(int b) {
+        return (b & 0xFF) * ONES;
+    }
+
+    static long eq(long word, long broadcast) {
+        long xor = word ^ broadcast;
+        return ~(((xor & LOW_BITS) + LOW_BITS) | xor | LOW_BITS);
+    }
+
+    static long lessThan(long word, int bound) {
+        // Works for bounds up to 0x80. Adding the complement of the bound to the low seven bits sets the highest bit
+        // of each byte that isn't smaller than the bound.
+        return ~(((word & LOW_BITS) + broadcast(0x80 - bound)) | word) & HIGH_BITS;
+    }
+
+    static boolean isAscii(long word) {
+        return (word & HIGH_BITS) == 0;
+    }
+
+    static long toBitmask(long highBits) {
+        return (highBits * BITMASK_MULTIPLIER) >>> 56;
+    }
+}
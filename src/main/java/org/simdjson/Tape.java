@@ -17,7 +17,7 @@ class Tape {
     private static final long JSON_VALUE_MASK = 0x00FFFFFFFFFFFFFFL;
     private static final int JSON_COUNT_MASK = 0xFFFFFF;
 
-    private final long[] tape;
+    private long[] tape;
 
     private int tapeIdx;
 
@@ -54,6 +54,15 @@ class Tape {
         tapeIdx = 0;
     }
 
+    int capacity() {
+        return tape.length;
+    }
+
+    void resize(int capacity) {
+        tape = new long[capacity];
+        tapeIdx = 0;
+    }
+
     int getCurrentIdx() {
         return tapeIdx;
     }
@@ -18,7 +18,7 @@ class TapeBuilder {
     private static final byte SPACE = 0x20;
 
     private final Tape tape;
-    private final byte[] stringBuffer;
+    private byte[] stringBuffer;
     private final OpenContainer[] openContainers;
     private final int padding;
     private final NumberParser numberParser;
@@ -26,8 +26,8 @@ class TapeBuilder {
 
     private int stringBufferIdx;
 
-    TapeBuilder(int capacity, int depth, int padding, byte[] stringBuffer) {
-        this.tape = new Tape(capacity);
+    TapeBuilder(Tape tape, int depth, int padding, byte[] stringBuffer, VectorWidth vectorWidth) {
+        this.tape = tape;
         this.openContainers = new OpenContainer[depth];
         this.padding = padding;
         for (int i = 0; i < openContainers.length; i++) {
@@ -35,7 +35,7 @@ class TapeBuilder {
         }
         this.stringBuffer = stringBuffer;
         this.numberParser = new NumberParser();
-        this.stringParser = new StringParser();
+        this.stringParser = new StringParser(vectorWidth);
     }
 
     void visitDocumentStart() {
@@ -212,6 +212,10 @@ class TapeBuilder {
         stringBufferIdx = 0;
     }
 
+    void setStringBuffer(byte[] stringBuffer) {
+        this.stringBuffer = stringBuffer;
+    }
+
     JsonValue createJsonValue(byte[] buffer) {
         return new JsonValue(tape, 1, stringBuffer, buffer);
     }
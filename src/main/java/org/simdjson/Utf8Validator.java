@@ -4,6 +4,7 @@ import jdk.incubator.vector.ByteVector;
 import jdk.incubator.vector.IntVector;
 import jdk.incubator.vector.VectorMask;
 import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
 
 import java.util.Arrays;
 
@@ -38,26 +39,54 @@ class Utf8Validator {
     private static final byte OVERLONG_4BYTE = 1 << 6;
     // An example: 10_000000 10_000000.
     private static final byte TWO_CONTINUATIONS = (byte) (1 << 7);
-    private static final byte MAX_2_LEADING_BYTE = (byte) 0b110_11111;
-    private static final byte MAX_3_LEADING_BYTE = (byte) 0b1110_1111;
-    private static final int TWO_BYTES_SIZE = Byte.SIZE * 2;
-    private static final int THREE_BYTES_SIZE = Byte.SIZE * 3;
-    private static final ByteVector BYTE_1_HIGH_LOOKUP = createByte1HighLookup();
-    private static final ByteVector BYTE_1_LOW_LOOKUP = createByte1LowLookup();
-    private static final ByteVector BYTE_2_HIGH_LOOKUP = createByte2HighLookup();
-    private static final ByteVector INCOMPLETE_CHECK = createIncompleteCheck();
+    static final byte MAX_2_LEADING_BYTE = (byte) 0b110_11111;
+    static final byte MAX_3_LEADING_BYTE = (byte) 0b1110_1111;
+    static final int TWO_BYTES_SIZE = Byte.SIZE * 2;
+    static final int THREE_BYTES_SIZE = Byte.SIZE * 3;
+    private static final ByteVector BYTE_1_HIGH_LOOKUP = createByte1HighLookup(BYTE_SPECIES);
+    private static final ByteVector BYTE_1_LOW_LOOKUP = createByte1LowLookup(BYTE_SPECIES);
+    private static final ByteVector BYTE_2_HIGH_LOOKUP = createByte2HighLookup(BYTE_SPECIES);
+    private static final ByteVector INCOMPLETE_CHECK = createIncompleteCheck(BYTE_SPECIES);
+    private static final VectorShuffle<Integer> FOUR_BYTES_FORWARD_SHIFT = createFourBytesForwardShift(INT_SPECIES);
+    // The structural indexer has separate kernels for each vector width, which can be chosen per parser, so it needs
+    // the lookups for each width, independently of the default species.
+    private static final ByteVector BYTE_1_HIGH_LOOKUP_128 = createByte1HighLookup(ByteVector.SPECIES_128);
+    private static final ByteVector BYTE_1_LOW_LOOKUP_128 = createByte1LowLookup(ByteVector.SPECIES_128);
+    private static final ByteVector BYTE_2_HIGH_LOOKUP_128 = createByte2HighLookup(ByteVector.SPECIES_128);
+    private static final VectorShuffle<Integer> FOUR_BYTES_FORWARD_SHIFT_128 = createFourBytesForwardShift(IntVector.SPECIES_128);
+    static final ByteVector BYTE_1_HIGH_LOOKUP_256 = createByte1HighLookup(ByteVector.SPECIES_256);
+    static final ByteVector BYTE_1_LOW_LOOKUP_256 = createByte1LowLookup(ByteVector.SPECIES_256);
+    static final ByteVector BYTE_2_HIGH_LOOKUP_256 = createByte2HighLookup(ByteVector.SPECIES_256);
+    static final ByteVector INCOMPLETE_CHECK_256 = createIncompleteCheck(ByteVector.SPECIES_256);
+    static final VectorShuffle<Integer> FOUR_BYTES_FORWARD_SHIFT_256 = createFourBytesForwardShift(IntVector.SPECIES_256);
+    static final ByteVector BYTE_1_HIGH_LOOKUP_512 = createByte1HighLookup(ByteVector.SPECIES_512);
+    static final ByteVector BYTE_1_LOW_LOOKUP_512 = createByte1LowLookup(ByteVector.SPECIES_512);
+    static final ByteVector BYTE_2_HIGH_LOOKUP_512 = createByte2HighLookup(ByteVector.SPECIES_512);
+    static final ByteVector INCOMPLETE_CHECK_512 = createIncompleteCheck(ByteVector.SPECIES_512);
+    static final VectorShuffle<Integer> FOUR_BYTES_FORWARD_SHIFT_512 = createFourBytesForwardShift(IntVector.SPECIES_512);
     private static final byte LOW_NIBBLE_MASK = 0b0000_1111;
-    private static final byte ALL_ASCII_MASK = (byte) 0b1000_0000;
-    private static final VectorShuffle<Integer> FOUR_BYTES_FORWARD_SHIFT = iota(INT_SPECIES, INT_SPECIES.elementSize() - 1, 1, true);
+    static final byte ALL_ASCII_MASK = (byte) 0b1000_0000;
     private static final int STEP_SIZE = BYTE_SPECIES.vectorByteSize();
+    private static final int BLOCK_SIZE = 64;
 
     static void validate(byte[] buffer, int length) {
+        validate(buffer, 0, length);
+    }
+
+    static void validate(byte[] buffer, int start, int length) {
+        if (VectorUtils.useSwar()) {
+            int end = start + length;
+            if ((scalarErrors(buffer, start, end, 0) | incomplete(lastFourBytes(buffer, start, end))) != 0) {
+                throw new JsonParsingException("The input is not valid UTF-8");
+            }
+            return;
+        }
         long previousIncomplete = 0;
         long errors = 0;
         int previousFourUtf8Bytes = 0;
 
-        int loopBound = BYTE_SPECIES.loopBound(length);
-        int offset = 0;
+        int loopBound = start + BYTE_SPECIES.loopBound(length);
+        int offset = start;
         for (; offset < loopBound; offset += STEP_SIZE) {
             ByteVector chunk = ByteVector.fromArray(BYTE_SPECIES, buffer, offset);
             IntVector chunkAsInts = chunk.reinterpretAsInts();
@@ -113,7 +142,7 @@ class Utf8Validator {
         }
 
         // If the input file doesn't align with the vector width, pad the missing bytes with zeros.
-        VectorMask<Byte> remainingBytes = BYTE_SPECIES.indexInRange(offset, length);
+        VectorMask<Byte> remainingBytes = BYTE_SPECIES.indexInRange(offset, start + length);
         ByteVector chunk = ByteVector.fromArray(BYTE_SPECIES, buffer, offset, remainingBytes);
         if (!chunk.and(ALL_ASCII_MASK).compare(EQ, 0).allTrue()) {
             IntVector chunkAsInts = chunk.reinterpretAsInts();
@@ -167,19 +196,146 @@ class Utf8Validator {
         }
     }
 
-    private static ByteVector createIncompleteCheck() {
+    // The methods below are used by the StructuralIndexer, which validates the input in the same pass in which it finds
+    // the structural characters.
+
+    static long blockErrors(byte[] buffer, int offset, int previousFourUtf8Bytes) {
+        // Used by the 128-bit kernel, and for the last block by all the kernels. 128-bit vectors are supported by all
+        // CPUs with vector units, and they never make a CPU lower its frequency.
+        long errors = 0;
+        for (int i = 0; i < BLOCK_SIZE; i += ByteVector.SPECIES_128.vectorByteSize()) {
+            ByteVector chunk = ByteVector.fromArray(ByteVector.SPECIES_128, buffer, offset + i);
+            IntVector chunkAsInts = chunk.reinterpretAsInts();
+            IntVector chunkWithPreviousFourBytes = chunkAsInts
+                    .rearrange(FOUR_BYTES_FORWARD_SHIFT_128)
+                    .withLane(0, previousFourUtf8Bytes);
+            ByteVector previousOneByte = chunkAsInts
+                    .lanewise(LSHL, Byte.SIZE)
+                    .or(chunkWithPreviousFourBytes.lanewise(LSHR, THREE_BYTES_SIZE))
+                    .reinterpretAsBytes();
+            ByteVector byte2HighNibbles = chunkAsInts.lanewise(LSHR, 4)
+                    .reinterpretAsBytes()
+                    .and(LOW_NIBBLE_MASK);
+            ByteVector byte1HighNibbles = previousOneByte.reinterpretAsInts()
+                    .lanewise(LSHR, 4)
+                    .reinterpretAsBytes()
+                    .and(LOW_NIBBLE_MASK);
+            ByteVector byte1LowNibbles = previousOneByte.and(LOW_NIBBLE_MASK);
+            ByteVector firstCheck = byte1HighNibbles.selectFrom(BYTE_1_HIGH_LOOKUP_128)
+                    .and(byte1LowNibbles.selectFrom(BYTE_1_LOW_LOOKUP_128))
+                    .and(byte2HighNibbles.selectFrom(BYTE_2_HIGH_LOOKUP_128));
+            ByteVector previousTwoBytes = chunkAsInts
+                    .lanewise(LSHL, TWO_BYTES_SIZE)
+                    .or(chunkWithPreviousFourBytes.lanewise(LSHR, TWO_BYTES_SIZE))
+                    .reinterpretAsBytes();
+            VectorMask<Byte> is3ByteLead = previousTwoBytes.compare(UGT, MAX_2_LEADING_BYTE);
+            ByteVector previousThreeBytes = chunkAsInts
+                    .lanewise(LSHL, THREE_BYTES_SIZE)
+                    .or(chunkWithPreviousFourBytes.lanewise(LSHR, Byte.SIZE))
+                    .reinterpretAsBytes();
+            VectorMask<Byte> is4ByteLead = previousThreeBytes.compare(UGT, MAX_3_LEADING_BYTE);
+            ByteVector secondCheck = firstCheck.add((byte) 0x80, is3ByteLead.or(is4ByteLead));
+            errors |= secondCheck.compare(NE, 0).toLong();
+            previousFourUtf8Bytes = chunkAsInts.lane(IntVector.SPECIES_128.length() - 1);
+        }
+        return errors;
+    }
+
+    static long scalarErrors(byte[] buffer, int from, int to, int previousFourUtf8Bytes) {
+        // The scalar counterpart of blockErrors for any range. A sequence cut at the end of the range is validated only
+        // partially, and the rest of it is validated along with the next range. Likewise, the range may start with
+        // the rest of a sequence that began in the preceding bytes, whose leading byte has already been validated.
+        int idx = from;
+        for (int i = 1; i <= 3; i++) {
+            int b = (previousFourUtf8Bytes >>> (Integer.SIZE - i * Byte.SIZE)) & 0xFF;
+            if (b < 0x80) {
+                break;
+            }
+            if (b >= 0xC0) {
+                if (!validSequenceTail(buffer, b, from - i, from, to)) {
+                    return 1;
+                }
+                idx = Math.max(from, from - i + sequenceLength(b));
+                break;
+            }
+        }
+        while (idx < to) {
+            if (idx + Long.BYTES <= to && SwarUtils.isAscii(SwarUtils.load(buffer, idx))) {
+                idx += Long.BYTES;
+                continue;
+            }
+            int b = buffer[idx] & 0xFF;
+            if (b < 0x80) {
+                idx++;
+                continue;
+            }
+            // Continuation bytes can't start a sequence, 0xC0 and 0xC1 would start an overlong one, and the leading
+            // bytes above 0xF4 would start one that encodes a code point greater than U+10FFFF.
+            if (b < 0xC2 || b > 0xF4 || !validSequenceTail(buffer, b, idx, idx + 1, to)) {
+                return 1;
+            }
+            idx += sequenceLength(b);
+        }
+        return 0;
+    }
+
+    private static boolean validSequenceTail(byte[] buffer, int leadingByte, int leadingByteIdx, int from, int to) {
+        int end = Math.min(leadingByteIdx + sequenceLength(leadingByte), to);
+        for (int i = Math.max(leadingByteIdx + 1, from); i < end; i++) {
+            int b = buffer[i] & 0xFF;
+            int min = 0x80;
+            int max = 0xBF;
+            if (i == leadingByteIdx + 1) {
+                // The second byte rules out overlong sequences, surrogates, and code points greater than U+10FFFF.
+                switch (leadingByte) {
+                    case 0xE0 -> min = 0xA0;
+                    case 0xED -> max = 0x9F;
+                    case 0xF0 -> min = 0x90;
+                    case 0xF4 -> max = 0x8F;
+                }
+            }
+            if (b < min || b > max) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int sequenceLength(int leadingByte) {
+        return leadingByte < 0xE0 ? 2 : leadingByte < 0xF0 ? 3 : 4;
+    }
+
+    static int lastFourBytes(byte[] buffer, int start, int end) {
+        // Packs the last four bytes of the range [start, end) into an integer, the same way as the last lane of
+        // a chunk reinterpreted as integers. Missing bytes are zeroed.
+        int fourBytes = 0;
+        for (int i = Math.max(start, end - 4); i < end; i++) {
+            fourBytes = (fourBytes >>> Byte.SIZE) | (buffer[i] << THREE_BYTES_SIZE);
+        }
+        return fourBytes;
+    }
+
+    static long incomplete(int previousFourUtf8Bytes) {
+        // The same check as the one with INCOMPLETE_CHECK, but applied to the last three of the four bytes.
+        int last = previousFourUtf8Bytes >>> THREE_BYTES_SIZE;
+        int secondLast = (previousFourUtf8Bytes >>> TWO_BYTES_SIZE) & 0xFF;
+        int thirdLast = (previousFourUtf8Bytes >>> Byte.SIZE) & 0xFF;
+        return last >= 0xC0 || secondLast >= 0xE0 || thirdLast >= 0xF0 ? 1 : 0;
+    }
+
+    private static ByteVector createIncompleteCheck(VectorSpecies<Byte> species) {
         // Previous vector is in an incomplete state if the last byte is smaller than 0xC0,
         // or the second last byte is smaller than 0xE0, or the third last byte is smaller than 0xF0.
-        int vectorByteSize = BYTE_SPECIES.vectorByteSize();
+        int vectorByteSize = species.vectorByteSize();
         byte[] eofArray = new byte[vectorByteSize];
         Arrays.fill(eofArray, (byte) 255);
         eofArray[vectorByteSize - 3] = (byte) 0xF0;
         eofArray[vectorByteSize - 2] = (byte) 0xE0;
         eofArray[vectorByteSize - 1] = (byte) 0xC0;
-        return ByteVector.fromArray(BYTE_SPECIES, eofArray, 0);
+        return ByteVector.fromArray(species, eofArray, 0);
     }
 
-    private static ByteVector createByte1HighLookup() {
+    private static ByteVector createByte1HighLookup(VectorSpecies<Byte> species) {
         byte[] byte1HighArray = new byte[]{
                 // ASCII high nibble = 0000 -> 0111, ie 0 -> 7 index in lookup table
                 TOO_LONG, TOO_LONG, TOO_LONG, TOO_LONG, TOO_LONG, TOO_LONG, TOO_LONG, TOO_LONG,
@@ -192,10 +348,10 @@ class Utf8Validator {
                 // Four byte lead high nibble = 1111
                 TOO_SHORT | TOO_LARGE | TOO_LARGE_1000 | OVERLONG_4BYTE
         };
-        return alignArrayToVector(byte1HighArray);
+        return alignArrayToVector(species, byte1HighArray);
     }
 
-    private static ByteVector createByte1LowLookup() {
+    private static ByteVector createByte1LowLookup(VectorSpecies<Byte> species) {
         final byte CARRY = TOO_SHORT | TOO_LONG | TWO_CONTINUATIONS;
         byte[] byte1LowArray = new byte[]{
                 // ASCII, two byte lead and three byte leading low nibble = 0000 -> 1111,
@@ -223,10 +379,10 @@ class Utf8Validator {
                 CARRY | TOO_LARGE | TOO_LARGE_1000,
                 CARRY | TOO_LARGE | TOO_LARGE_1000
         };
-        return alignArrayToVector(byte1LowArray);
+        return alignArrayToVector(species, byte1LowArray);
     }
 
-    private static ByteVector createByte2HighLookup() {
+    private static ByteVector createByte2HighLookup(VectorSpecies<Byte> species) {
         byte[] byte2HighArray = new byte[]{
                 // ASCII high nibble = 0000 -> 0111, ie 0 -> 7 index in lookup table
                 TOO_SHORT, TOO_SHORT, TOO_SHORT, TOO_SHORT, TOO_SHORT, TOO_SHORT, TOO_SHORT, TOO_SHORT,
@@ -238,13 +394,17 @@ class Utf8Validator {
                 // 1100 -> 1111 = unexpected leading byte
                 TOO_SHORT, TOO_SHORT, TOO_SHORT, TOO_SHORT
         };
-        return alignArrayToVector(byte2HighArray);
+        return alignArrayToVector(species, byte2HighArray);
+    }
+
+    private static VectorShuffle<Integer> createFourBytesForwardShift(VectorSpecies<Integer> species) {
+        return iota(species, species.elementSize() - 1, 1, true);
     }
 
-    private static ByteVector alignArrayToVector(byte[] arrayValues) {
+    private static ByteVector alignArrayToVector(VectorSpecies<Byte> species, byte[] arrayValues) {
         // Pad array with zeroes to align up with vector size.
-        byte[] alignedArray = new byte[BYTE_SPECIES.vectorByteSize()];
+        byte[] alignedArray = new byte[species.vectorByteSize()];
         System.arraycopy(arrayValues, 0, alignedArray, 0, arrayValues.length);
-        return ByteVector.fromArray(BYTE_SPECIES, alignedArray, 0);
+        return ByteVector.fromArray(species, alignedArray, 0);
     }
 }
@@ -9,40 +9,66 @@ class VectorUtils {
 
     static final VectorSpecies<Integer> INT_SPECIES;
     static final VectorSpecies<Byte> BYTE_SPECIES;
+    // Without the JIT compiler's intrinsics, the Vector API is emulated in plain Java, which is orders of magnitude
+    // slower than scalar code. In such environments, the input is processed with SWAR (SIMD within a register)
+    // instead. The vector species is still set, because some of the vector constants are created anyway.
+    static final boolean SWAR;
+    private static final boolean SWAR_UNTIL_WARM = Boolean.getBoolean("org.simdjson.swarUntilWarm");
 
     static {
         String species = System.getProperty("org.simdjson.species", "preferred");
         switch (species) {
             case "preferred" -> {
-                BYTE_SPECIES = ByteVector.SPECIES_PREFERRED;
-                INT_SPECIES = IntVector.SPECIES_PREFERRED;
-                assertSupportForSpecies(BYTE_SPECIES);
-                assertSupportForSpecies(INT_SPECIES);
+                SWAR = !vectorIntrinsicsAvailable();
+                BYTE_SPECIES = SWAR ? ByteVector.SPECIES_128 : ByteVector.SPECIES_PREFERRED;
+                INT_SPECIES = SWAR ? IntVector.SPECIES_128 : IntVector.SPECIES_PREFERRED;
             }
             case "512" -> {
+                SWAR = false;
                 BYTE_SPECIES = ByteVector.SPECIES_512;
                 INT_SPECIES = IntVector.SPECIES_512;
             }
             case "256" -> {
+                SWAR = false;
                 BYTE_SPECIES = ByteVector.SPECIES_256;
                 INT_SPECIES = IntVector.SPECIES_256;
             }
+            case "128" -> {
+                SWAR = false;
+                BYTE_SPECIES = ByteVector.SPECIES_128;
+                INT_SPECIES = IntVector.SPECIES_128;
+            }
+            case "swar" -> {
+                SWAR = true;
+                BYTE_SPECIES = ByteVector.SPECIES_128;
+                INT_SPECIES = IntVector.SPECIES_128;
+            }
             default -> throw new IllegalArgumentException("Unsupported vector species: " + species);
         }
     }
 
-    private static void assertSupportForSpecies(VectorSpecies<?> species) {
-        if (species.vectorShape() != VectorShape.S_256_BIT && species.vectorShape() != VectorShape.S_512_BIT) {
-            throw new IllegalArgumentException("Unsupported vector species: " + species);
+    private static boolean vectorIntrinsicsAvailable() {
+        // The vector intrinsics are implemented only by the C2 compiler, which is disabled in the interpreted mode
+        // (-Xint) and when the tiered compilation stops at C1 (e.g., -XX:TieredStopAtLevel=1). A preferred shape
+        // narrower than 128 bits means that the hardware has no suitable vector registers (e.g., -XX:MaxVectorSize=8).
+        String vmInfo = System.getProperty("java.vm.info", "");
+        if (vmInfo.contains("interpreted mode") || vmInfo.contains("emulated-client")) {
+            return false;
         }
+        VectorShape shape = ByteVector.SPECIES_PREFERRED.vectorShape();
+        return shape == VectorShape.S_128_BIT || shape == VectorShape.S_256_BIT || shape == VectorShape.S_512_BIT;
+    }
+
+    static boolean useSwar() {
+        // Optionally, SWAR is used also until the vectorized code is compiled, which is done in the background.
+        return SWAR || (SWAR_UNTIL_WARM && !VectorWarmUp.isDone());
     }
 
-    static ByteVector repeat(byte[] array) {
-        int n = BYTE_SPECIES.vectorByteSize() / 4;
-        byte[] result = new byte[n * array.length];
+    static ByteVector repeat(VectorSpecies<Byte> species, byte[] array) {
+        byte[] result = new byte[species.vectorByteSize()];
         for (int dst = 0; dst < result.length; dst += array.length) {
             System.arraycopy(array, 0, result, dst, array.length);
         }
-        return ByteVector.fromArray(BYTE_SPECIES, result, 0);
+        return ByteVector.fromArray(species, result, 0);
     }
 }
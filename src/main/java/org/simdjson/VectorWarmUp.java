@@ -0,0 +1,68 @@
+package org.simdjson;
+
+import java.nio.charset.StandardCharsets;
+
+// Runs the vectorized code in the background until the JIT compiler compiles it. It isn't known when exactly that
+// happens, so the code is assumed to be compiled once the time of a round of warm-up iterations stops improving.
+class VectorWarmUp {
+
+    private static final int ITERATIONS_PER_ROUND = 20;
+    private static final int MAX_ROUNDS = 2000;
+    private static final int ROUNDS_WITHOUT_PROGRESS = 20;
+    private static final String SAMPLE_ELEMENT = "{\"id\": 12345, \"name\": \"żółć \\\"quoted\\\" \\u0041\", \"tags\": [\"a\", \"b\"], \"flag\": true, \"value\": null}";
+
+    private static volatile boolean done;
+
+    static {
+        Thread thread = new Thread(VectorWarmUp::run, "simdjson-vector-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    static boolean isDone() {
+        return done;
+    }
+
+    private static void run() {
+        try {
+            byte[] sample = sample();
+            BitIndexes bitIndexes = new BitIndexes(sample.length + 64);
+            StructuralIndexer indexer = new StructuralIndexer(bitIndexes);
+            StringParser stringParser = new StringParser();
+            byte[] stringBuffer = new byte[sample.length + 64];
+
+            long bestRoundTime = Long.MAX_VALUE;
+            int roundsWithoutProgress = 0;
+            for (int round = 0; round < MAX_ROUNDS && roundsWithoutProgress < ROUNDS_WITHOUT_PROGRESS; round++) {
+                long roundStart = System.nanoTime();
+                for (int i = 0; i < ITERATIONS_PER_ROUND; i++) {
+                    indexer.indexWithVectors(sample, sample.length);
+                    for (int j = 0; j < bitIndexes.size(); j++) {
+                        int idx = bitIndexes.get(j);
+                        if (sample[idx] == '"') {
+                            stringParser.parseStringWithVectors(sample, idx, stringBuffer);
+                        }
+                    }
+                }
+                long roundTime = System.nanoTime() - roundStart;
+                // Improvements smaller than 10% are treated as noise.
+                if (roundTime < bestRoundTime - bestRoundTime / 10) {
+                    bestRoundTime = roundTime;
+                    roundsWithoutProgress = 0;
+                } else {
+                    roundsWithoutProgress++;
+                }
+            }
+        } finally {
+            done = true;
+        }
+    }
+
+    private static byte[] sample() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 32; i++) {
+            sb.append(i == 0 ? "" : ",\n").append(SAMPLE_ELEMENT);
+        }
+        return sb.append("]").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,33 @@
+package org.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+
+public enum VectorWidth {
+
+    // The width set with the org.simdjson.species system property, or the one preferred by the CPU.
+    DEFAULT,
+    BITS_128,
+    BITS_256,
+    BITS_512,
+    // Wide vectors make some CPUs lower their frequency, which slows down everything else running on the same core.
+    // The cost pays off only for large documents, so smaller ones are processed with vectors of at most 256 bits.
+    ADAPTIVE;
+
+    private static final int ADAPTIVE_MIN_512_BIT_LENGTH = 64 * 1024;
+    // Vectors wider than the CPU's registers are emulated by the Vector API, which is much slower than narrower ones.
+    // For example, compressing the lanes of a 512-bit vector without AVX-512 takes a series of shuffles. So, the widths
+    // chosen for a parser are lowered to the widest one supported by the hardware. Only the default width can exceed
+    // it, when it's forced with the system property.
+    private static final int MAX_BIT_SIZE = Math.max(128, ByteVector.SPECIES_PREFERRED.vectorBitSize());
+
+    int bitSize(int length) {
+        int defaultBitSize = VectorUtils.BYTE_SPECIES.vectorBitSize();
+        return switch (this) {
+            case DEFAULT -> defaultBitSize;
+            case BITS_128 -> 128;
+            case BITS_256 -> Math.min(256, MAX_BIT_SIZE);
+            case BITS_512 -> Math.min(512, MAX_BIT_SIZE);
+            case ADAPTIVE -> length >= ADAPTIVE_MIN_512_BIT_LENGTH ? defaultBitSize : Math.min(defaultBitSize, 256);
+        };
+    }
+}
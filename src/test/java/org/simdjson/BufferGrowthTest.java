@@ -0,0 +1,87 @@
+package org.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.simdjson.schemas.RecordWithStringArrayField;
+
+import java.util.Iterator;
+
+import static org.simdjson.testutils.SimdJsonAssertions.assertThat;
+import static org.simdjson.testutils.TestUtils.toUtf8;
+
+public class BufferGrowthTest {
+
+    @Test
+    public void documentLargerThanCapacity() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser(1024, 16);
+        byte[] json = toUtf8("[" + "1,".repeat(100_000) + "2]");
+
+        // when
+        JsonValue jsonValue = parser.parse(json, json.length);
+
+        // then
+        Iterator<JsonValue> it = jsonValue.arrayIterator();
+        for (int i = 0; i < 100_000; i++) {
+            assertThat(it.next()).isEqualTo(1);
+        }
+        assertThat(it.next()).isEqualTo(2);
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @Test
+    public void stringsTakingMoreSpaceThanInput() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser(1024, 16);
+        byte[] json = toUtf8("[" + "\"\",".repeat(100_000) + "\"a\"]");
+
+        // when
+        JsonValue jsonValue = parser.parse(json, json.length);
+
+        // then
+        Iterator<JsonValue> it = jsonValue.arrayIterator();
+        for (int i = 0; i < 100_000; i++) {
+            assertThat(it.next()).isEqualTo("");
+        }
+        assertThat(it.next()).isEqualTo("a");
+    }
+
+    @Test
+    public void schemaBasedParsingOfDocumentLargerThanCapacity() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser(1024, 16);
+        byte[] json = toUtf8("{\"field\": [" + "\"abc\",".repeat(10_000) + "\"" + "d".repeat(5_000) + "\"]}");
+
+        // when
+        RecordWithStringArrayField object = parser.parse(json, json.length, RecordWithStringArrayField.class);
+
+        // then
+        assertThat(object.field()).hasSize(10_001);
+        assertThat(object.field()[10_000]).isEqualTo("d".repeat(5_000));
+    }
+
+    @Test
+    public void parsingAfterOutlier() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser(1024, 16, 4096);
+        byte[] outlier = toUtf8("[" + "\"abc\",".repeat(10_000) + "1]");
+        byte[] small = toUtf8("{\"a\": [1, \"b\"]}");
+        parser.parse(outlier, outlier.length);
+
+        // when
+        JsonValue afterOutlier = parser.parse(small, small.length);
+
+        // then
+        Iterator<JsonValue> it = afterOutlier.get("a").arrayIterator();
+        assertThat(it.next()).isEqualTo(1);
+        assertThat(it.next()).isEqualTo("b");
+        assertThat(lastElement(parser.parse(outlier, outlier.length))).isEqualTo(1);
+    }
+
+    private static JsonValue lastElement(JsonValue array) {
+        JsonValue last = null;
+        for (Iterator<JsonValue> it = array.arrayIterator(); it.hasNext(); ) {
+            last = it.next();
+        }
+        return last;
+    }
+}
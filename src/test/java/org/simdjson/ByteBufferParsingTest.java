@@ -0,0 +1,113 @@
+package org.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.simdjson.schemas.RecordWithStringField;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.simdjson.testutils.SimdJsonAssertions.assertThat;
+import static org.simdjson.testutils.TestUtils.loadTestFile;
+import static org.simdjson.testutils.TestUtils.toUtf8;
+
+public class ByteBufferParsingTest {
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void onlyBytesBetweenPositionAndLimitAreParsed(boolean direct) {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        ByteBuffer buffer = allocate(toUtf8("[1, 2]{\"a\": \"b\"}[3]"), direct);
+        buffer.position(6).limit(16);
+
+        // when
+        JsonValue jsonValue = parser.parse(buffer);
+
+        // then
+        assertThat(jsonValue.get("a")).isEqualTo("b");
+        assertThat(buffer.position()).isEqualTo(6);
+        assertThat(buffer.limit()).isEqualTo(16);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void stringAtTheEndOfBuffer(boolean direct) {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        ByteBuffer buffer = allocate(toUtf8("\"abc\""), direct);
+
+        // when
+        JsonValue jsonValue = parser.parse(buffer);
+
+        // then
+        assertThat(jsonValue).isEqualTo("abc");
+    }
+
+    @Test
+    public void readOnlySlicedHeapBuffer() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        ByteBuffer buffer = ByteBuffer.wrap(toUtf8("xx[true]xx"), 2, 6)
+                .slice()
+                .asReadOnlyBuffer();
+
+        // when
+        JsonValue jsonValue = parser.parse(buffer);
+
+        // then
+        assertThat(jsonValue.arrayIterator().next()).isEqualTo(true);
+    }
+
+    @Test
+    public void slicedHeapBuffer() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        ByteBuffer buffer = ByteBuffer.wrap(toUtf8("xx[1, {\"a\": \"b\"}]xx"), 2, 17)
+                .slice()
+                .position(4);
+        buffer.limit(buffer.limit() - 3);
+
+        // when
+        JsonValue jsonValue = parser.parse(buffer);
+
+        // then
+        assertThat(buffer.arrayOffset()).isEqualTo(2);
+        assertThat(jsonValue.get("a")).isEqualTo("b");
+    }
+
+    @Test
+    public void largeDirectBuffer() throws IOException {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        ByteBuffer buffer = allocate(loadTestFile("/twitter.json"), true);
+
+        // when
+        JsonValue jsonValue = parser.parse(buffer);
+
+        // then
+        assertThat(jsonValue.get("statuses").getSize()).isEqualTo(100);
+        assertThat(jsonValue.get("search_metadata").get("count")).isEqualTo(100);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void schemaBasedParsing(boolean direct) {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        ByteBuffer buffer = allocate(toUtf8("  {\"field\": \"abc\"}  "), direct);
+        buffer.position(2).limit(buffer.limit() - 2);
+
+        // when
+        RecordWithStringField object = parser.parse(buffer, RecordWithStringField.class);
+
+        // then
+        assertThat(object.field()).isEqualTo("abc");
+    }
+
+    private static ByteBuffer allocate(byte[] bytes, boolean direct) {
+        ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(bytes.length) : ByteBuffer.allocate(bytes.length);
+        return buffer.put(bytes).flip();
+    }
+}
@@ -0,0 +1,197 @@
+package org.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.simdjson.schemas.RecordWithStringField;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.simdjson.testutils.SimdJsonAssertions.assertThat;
+import static org.simdjson.testutils.TestUtils.loadTestFile;
+import static org.simdjson.testutils.TestUtils.toUtf8;
+import static org.simdjson.testutils.TestUtils.toUtf8NativeSegment;
+
+public class CompactBitIndexesTest {
+
+    @Test
+    public void sameIndexesAsUncompressed() throws IOException {
+        // given
+        byte[] json = loadTestFile("/twitter.json");
+        BitIndexes expected = new BitIndexes(json.length + 64);
+        new StructuralIndexer(expected).index(json, json.length);
+        CompactBitIndexes actual = new CompactBitIndexes(json.length + 64);
+        StructuralIndexer indexer = new StructuralIndexer(actual);
+
+        // when
+        indexer.index(json, json.length);
+
+        // then
+        assertThat(actual.size()).isEqualTo(expected.size());
+        assertThat(actual.getLast()).isEqualTo(expected.getLast());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.peek()).isEqualTo(expected.get(i));
+            assertThat(actual.getAndAdvance()).isEqualTo(expected.get(i));
+        }
+        assertThat(actual.isEnd()).isTrue();
+    }
+
+    @Test
+    public void distancesExceedingSixteenBits() {
+        // given
+        String whitespace = " ".repeat(70_000);
+        byte[] json = toUtf8(whitespace + "[1," + whitespace + "2," + " ".repeat(65_535) + "3]");
+        SimdJsonParser parser = SimdJsonParser.builder().compactIndex(true).build();
+
+        // when
+        JsonValue jsonValue = parser.parse(json, json.length);
+
+        // then
+        Iterator<JsonValue> it = jsonValue.arrayIterator();
+        assertThat(it.next()).isEqualTo(1);
+        assertThat(it.next()).isEqualTo(2);
+        assertThat(it.next()).isEqualTo(3);
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @Test
+    public void parsingWithCompactIndex() throws IOException {
+        // given
+        byte[] json = loadTestFile("/twitter.json");
+        SimdJsonParser parser = SimdJsonParser.builder().compactIndex(true).build();
+
+        // when
+        JsonValue jsonValue = parser.parse(json, json.length);
+
+        // then
+        assertThat(jsonValue.get("statuses").getSize()).isEqualTo(100);
+        assertThat(jsonValue.get("search_metadata").get("count")).isEqualTo(100);
+    }
+
+    @Test
+    public void schemaBasedParsingWithCompactIndex() {
+        // given
+        byte[] json = toUtf8("{\"field\": \"abc\"}");
+        SimdJsonParser parser = SimdJsonParser.builder().compactIndex(true).build();
+
+        // when
+        RecordWithStringField object = parser.parse(json, json.length, RecordWithStringField.class);
+
+        // then
+        assertThat(object.field()).isEqualTo("abc");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[[1, 2]", "{\"a\": [1}", "[1,", "{\"a\": {}"})
+    public void sameErrorsAsUncompressed(String jsonStr) {
+        // given
+        byte[] json = toUtf8(jsonStr);
+        SimdJsonParser parser = SimdJsonParser.builder().compactIndex(true).build();
+        JsonParsingException expected = assertThrows(
+                JsonParsingException.class,
+                () -> new SimdJsonParser().parse(json, json.length)
+        );
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, () -> parser.parse(json, json.length));
+
+        // then
+        assertThat(ex)
+                .hasMessage(expected.getMessage());
+    }
+
+    @Test
+    public void reuseOfCompactIndex() {
+        // given
+        SimdJsonParser parser = SimdJsonParser.builder().compactIndex(true).build();
+        byte[] first = toUtf8("[" + "1, ".repeat(1000) + "1]");
+        byte[] second = toUtf8("{\"a\": true}");
+
+        // when
+        parser.parse(first, first.length);
+        JsonValue jsonValue = parser.parse(second, second.length);
+
+        // then
+        assertThat(jsonValue.get("a")).isEqualTo(true);
+    }
+
+    @Test
+    public void parallelIndexingIntoCompactIndex() {
+        // given
+        byte[] input = toUtf8("[\"" + "a".repeat(100) + "\", " + "1, ".repeat(200) + "{\"b\": null}]");
+        BitIndexes expected = new BitIndexes(input.length + 64);
+        new StructuralIndexer(expected).index(input, input.length);
+        CompactBitIndexes actual = new CompactBitIndexes(input.length + 64);
+        ParallelStructuralIndexer parallelIndexer = new ParallelStructuralIndexer(
+                new StructuralIndexer(actual), actual, 4, 64
+        );
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            // when
+            parallelIndexer.index(input, 0, input.length, executor);
+        }
+
+        // then
+        assertThat(actual.size()).isEqualTo(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.getAndAdvance()).isEqualTo(expected.get(i));
+        }
+    }
+
+    @Test
+    public void streamsUseRegularIndex() {
+        // given
+        byte[] json = toUtf8("{\"a\": 1} [2]");
+        SimdJsonParser parser = SimdJsonParser.builder().compactIndex(true).build();
+        byte[] single = toUtf8("[3]");
+
+        // when
+        Iterator<JsonValue> it = parser.parseMany(json, json.length);
+        JsonValue first = it.next();
+
+        // then
+        assertThat(first.get("a")).isEqualTo(1);
+        assertThat(it.next().arrayIterator().next()).isEqualTo(2);
+        assertThat(it.hasNext()).isFalse();
+        assertThat(parser.parse(single, single.length).arrayIterator().next()).isEqualTo(3);
+    }
+
+    @Test
+    public void offHeapInputIsNotSupported() {
+        // given
+        MemorySegment segment = toUtf8NativeSegment("[1]");
+        SimdJsonParser parser = SimdJsonParser.builder().compactIndex(true).build();
+
+        // when
+        UnsupportedOperationException ex = assertThrows(
+                UnsupportedOperationException.class,
+                () -> parser.parse(segment)
+        );
+
+        // then
+        assertThat(ex)
+                .hasMessage("A compact index is supported only for documents in heap memory that are parsed whole.");
+    }
+
+    @Test
+    public void lazyParsingIsNotSupported() {
+        // given
+        byte[] json = toUtf8("{\"field\": \"abc\"}");
+        SimdJsonParser parser = SimdJsonParser.builder().compactIndex(true).build();
+
+        // when
+        UnsupportedOperationException ex = assertThrows(
+                UnsupportedOperationException.class,
+                () -> parser.parseLazily(json, json.length, RecordWithStringField.class)
+        );
+
+        // then
+        assertThat(ex)
+                .hasMessage("A compact index is supported only for documents in heap memory that are parsed whole.");
+    }
+}
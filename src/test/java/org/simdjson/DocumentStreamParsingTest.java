@@ -0,0 +1,268 @@
+package org.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.simdjson.schemas.RecordWithIntegerField;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.simdjson.testutils.SimdJsonAssertions.assertThat;
+import static org.simdjson.testutils.TestUtils.toUtf8;
+import static org.simdjson.testutils.TestUtils.toUtf8NativeSegment;
+
+public class DocumentStreamParsingTest {
+
+    @Test
+    public void newlineDelimitedDocuments() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("{\"a\": 1}\n[2, 3]\n\"abc\"\n4\ntrue\nnull\n{}\n");
+
+        // when
+        Iterator<JsonValue> it = parser.parseMany(json, json.length);
+
+        // then
+        assertThat(it.next().get("a")).isEqualTo(1);
+        assertThat(it.next().arrayIterator().next()).isEqualTo(2);
+        assertThat(it.next()).isEqualTo("abc");
+        assertThat(it.next()).isEqualTo(4);
+        assertThat(it.next()).isEqualTo(true);
+        assertThat(it.next().isNull()).isTrue();
+        assertThat(it.next().isObject()).isTrue();
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @Test
+    public void concatenatedDocuments() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("{\"a\":1}[2]\"b\"\"c\"[]{\"d\":{}}1 2");
+
+        // when
+        Iterator<JsonValue> it = parser.parseMany(json, json.length);
+
+        // then
+        assertThat(it.next().get("a")).isEqualTo(1);
+        assertThat(it.next().arrayIterator().next()).isEqualTo(2);
+        assertThat(it.next()).isEqualTo("b");
+        assertThat(it.next()).isEqualTo("c");
+        assertThat(it.next().isArray()).isTrue();
+        assertThat(it.next().get("d").isObject()).isTrue();
+        assertThat(it.next()).isEqualTo(1);
+        assertThat(it.next()).isEqualTo(2);
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @Test
+    public void onlyWhitespace() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8(" \n\n \t ");
+
+        // when
+        Iterator<JsonValue> it = parser.parseMany(json, json.length);
+
+        // then
+        assertThat(it.hasNext()).isFalse();
+        assertThrows(NoSuchElementException.class, it::next);
+    }
+
+    @Test
+    public void documentsSpanningMultipleBatches() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser(256, 16);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("{\"id\": ").append(i).append(", \"name\": \"żółć ").append(i).append("\"}");
+            sb.append(i % 3 == 0 ? "\n" : " ");
+            sb.append(i).append('\n');
+        }
+        byte[] json = toUtf8(sb.toString());
+
+        // when
+        Iterator<JsonValue> it = parser.parseMany(json, json.length);
+
+        // then
+        for (int i = 0; i < 1000; i++) {
+            JsonValue object = it.next();
+            assertThat(object.get("id")).isEqualTo(i);
+            assertThat(object.get("name")).isEqualTo("żółć " + i);
+            assertThat(it.next()).isEqualTo(i);
+        }
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @Test
+    public void nativeSegmentSpanningMultipleBatches() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser(256, 16);
+        MemorySegment json = toUtf8NativeSegment(ndjsonWithIds(1000));
+
+        // when
+        Iterator<JsonValue> it = parser.parseMany(json);
+
+        // then
+        for (int i = 0; i < 1000; i++) {
+            assertThat(it.next().get("field")).isEqualTo(i);
+        }
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @Test
+    public void documentLargerThanBatch() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser(256, 16);
+        byte[] json = toUtf8("[1]\n\"" + "a".repeat(300) + "\"\n[2]");
+        Iterator<JsonValue> it = parser.parseMany(json, json.length);
+        it.next();
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, it::hasNext);
+
+        // then
+        assertThat(ex)
+                .hasMessage("The document is too large. It does not fit in a batch of 192 bytes.");
+    }
+
+    @Test
+    public void invalidDocumentDoesNotStopTheStream() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("{\"a\": 1}\n{\"a\" 2}\n{\"a\": 3}");
+        Iterator<JsonValue> it = parser.parseMany(json, json.length);
+        assertThat(it.next().get("a")).isEqualTo(1);
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, it::next);
+
+        // then
+        assertThat(ex)
+                .hasMessage("Missing colon after key in object");
+        assertThat(it.next().get("a")).isEqualTo(3);
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @Test
+    public void unclosedObjectAtTheEnd() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("{\"a\": 1}\n{\"a\": 2");
+        Iterator<JsonValue> it = parser.parseMany(json, json.length);
+        it.next();
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, it::next);
+
+        // then
+        assertThat(ex)
+                .hasMessage("Unclosed object. Missing '}' for starting '{'.");
+    }
+
+    @Test
+    public void schemaBasedParsing() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser(256, 16);
+        byte[] json = toUtf8(ndjsonWithIds(100));
+
+        // when
+        Iterator<RecordWithIntegerField> it = parser.parseMany(json, json.length, RecordWithIntegerField.class);
+
+        // then
+        for (int i = 0; i < 100; i++) {
+            assertThat(it.next().field()).isEqualTo(i);
+        }
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @Test
+    public void pipelinedParsing() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser(256, 16);
+        byte[] json = toUtf8(ndjsonWithIds(1000));
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            // when
+            Iterator<JsonValue> it = parser.parseMany(json, json.length, executor);
+
+            // then
+            for (int i = 0; i < 1000; i++) {
+                assertThat(it.next().get("field")).isEqualTo(i);
+            }
+            assertThat(it.hasNext()).isFalse();
+        }
+    }
+
+    @Test
+    public void pipelinedParsingOfNativeSegment() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser(256, 16);
+        MemorySegment json = toUtf8NativeSegment(ndjsonWithIds(1000));
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            // when
+            Iterator<RecordWithIntegerField> it = parser.parseMany(json, RecordWithIntegerField.class, executor);
+
+            // then
+            for (int i = 0; i < 1000; i++) {
+                assertThat(it.next().field()).isEqualTo(i);
+            }
+            assertThat(it.hasNext()).isFalse();
+        }
+    }
+
+    @Test
+    public void errorInBackgroundBatch() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser(256, 16);
+        byte[] json = toUtf8("[1]\n\"" + "a".repeat(300) + "\"\n[2]");
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Iterator<JsonValue> it = parser.parseMany(json, json.length, executor);
+            it.next();
+
+            // when
+            JsonParsingException ex = assertThrows(JsonParsingException.class, it::hasNext);
+
+            // then
+            assertThat(ex)
+                    .hasMessage("The document is too large. It does not fit in a batch of 192 bytes.");
+        }
+    }
+
+    @Test
+    public void parsingAfterAbandonedPipelinedStream() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser(4 * 1024 * 1024, 16);
+        byte[] json = toUtf8(ndjsonWithIds(200_000));
+        byte[] largeDocument = toUtf8("[" + "1,".repeat(1_500_000) + "2]");
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Iterator<JsonValue> abandoned = parser.parseMany(json, json.length, executor);
+            for (int i = 0; i < 100_000; i++) {
+                abandoned.next();
+            }
+
+            // when
+            JsonValue jsonValue = parser.parse(largeDocument, largeDocument.length);
+
+            // then
+            int count = 0;
+            for (Iterator<JsonValue> it = jsonValue.arrayIterator(); it.hasNext(); it.next()) {
+                count++;
+            }
+            assertThat(count).isEqualTo(1_500_001);
+        }
+    }
+
+    private static String ndjsonWithIds(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("{\"field\": ").append(i).append("}\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,191 @@
+package org.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.simdjson.schemas.RecordWithStringField;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32C;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.simdjson.testutils.SimdJsonAssertions.assertThat;
+import static org.simdjson.testutils.TestUtils.loadTestFile;
+import static org.simdjson.testutils.TestUtils.toUtf8;
+
+public class IndexSidecarTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void indexesAreRestoredFromFile() throws IOException {
+        // given
+        byte[] json = loadTestFile("/twitter.json");
+        Path path = Files.write(dir.resolve("twitter.json"), json);
+        Path indexPath = dir.resolve("twitter.json.idx");
+        new SimdJsonParser().writeIndex(path, indexPath);
+        BitIndexes expected = new BitIndexes(json.length + 64);
+        new StructuralIndexer(expected).index(json, json.length);
+        BitIndexes actual = new BitIndexes(json.length + 64);
+
+        // when
+        boolean restored = IndexSidecar.read(indexPath, MemorySegment.ofArray(json), actual);
+
+        // then
+        assertThat(restored).isTrue();
+        assertThat(actual.size()).isEqualTo(expected.size());
+        for (int i = 0; i <= expected.size(); i++) {
+            assertThat(actual.get(i)).isEqualTo(expected.get(i));
+        }
+    }
+
+    @Test
+    public void parsingWithIndexFile() throws IOException {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        Path path = Files.write(dir.resolve("twitter.json"), loadTestFile("/twitter.json"));
+        Path indexPath = dir.resolve("twitter.json.idx");
+        parser.writeIndex(path, indexPath);
+
+        // when
+        JsonValue jsonValue = parser.parse(path, indexPath);
+
+        // then
+        assertThat(jsonValue.get("statuses").getSize()).isEqualTo(100);
+        assertThat(jsonValue.get("search_metadata").get("count")).isEqualTo(100);
+    }
+
+    @Test
+    public void schemaBasedParsingWithIndexFile() throws IOException {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        Path path = Files.writeString(dir.resolve("record.json"), "{\"field\": \"abc\"}");
+        Path indexPath = dir.resolve("record.json.idx");
+        parser.writeIndex(path, indexPath);
+
+        // when
+        RecordWithStringField object = parser.parse(path, indexPath, RecordWithStringField.class);
+
+        // then
+        assertThat(object.field()).isEqualTo("abc");
+    }
+
+    @Test
+    public void indexFileOfDifferentContentIsIgnored() throws IOException {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        Path path = dir.resolve("doc.json");
+        Path indexPath = dir.resolve("doc.json.idx");
+        Files.writeString(path, "{\"a\": [1, 2, 3]}");
+        parser.writeIndex(path, indexPath);
+        // The length is the same, so only the checksum tells the contents apart.
+        Files.writeString(path, "{\"a\": \"1, 2, 3\"}");
+
+        // when
+        JsonValue jsonValue = parser.parse(path, indexPath);
+
+        // then
+        assertThat(jsonValue.get("a")).isEqualTo("1, 2, 3");
+        assertThat(IndexSidecar.read(indexPath, MemorySegment.ofArray(Files.readAllBytes(path)), new BitIndexes(64))).isFalse();
+    }
+
+    @Test
+    public void corruptedIndexFileIsIgnored() throws IOException {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        Path path = Files.writeString(dir.resolve("doc.json"), "[1, 2, 3]");
+        Path indexPath = dir.resolve("doc.json.idx");
+        parser.writeIndex(path, indexPath);
+        byte[] index = Files.readAllBytes(indexPath);
+        index[index.length - 1] ^= 1;
+        Files.write(indexPath, index);
+
+        // when
+        JsonValue jsonValue = parser.parse(path, indexPath);
+
+        // then
+        assertThat(jsonValue.getSize()).isEqualTo(3);
+        assertThat(IndexSidecar.read(indexPath, MemorySegment.ofArray(toUtf8("[1, 2, 3]")), new BitIndexes(64))).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 3, 9, 1000})
+    public void indexFileWithInvalidIndexesIsIgnored(int lastIndex) throws IOException {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        Path path = Files.writeString(dir.resolve("doc.json"), "[1, 2, 3]");
+        Path indexPath = dir.resolve("doc.json.idx");
+        parser.writeIndex(path, indexPath);
+        // The checksum of the indexes is updated, so only their values tell that they don't match the input.
+        ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(indexPath)).order(ByteOrder.LITTLE_ENDIAN);
+        index.putInt(index.limit() - Integer.BYTES, lastIndex);
+        CRC32C crc = new CRC32C();
+        crc.update(index.slice(32, index.limit() - 32));
+        index.putInt(20, (int) crc.getValue());
+        Files.write(indexPath, index.array());
+
+        // when
+        JsonValue jsonValue = parser.parse(path, indexPath);
+
+        // then
+        assertThat(jsonValue.getSize()).isEqualTo(3);
+        assertThat(IndexSidecar.read(indexPath, MemorySegment.ofArray(toUtf8("[1, 2, 3]")), new BitIndexes(64))).isFalse();
+    }
+
+    @Test
+    public void missingIndexFile() throws IOException {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        Path path = Files.writeString(dir.resolve("doc.json"), "[1, 2, 3]");
+
+        // when
+        JsonValue jsonValue = parser.parse(path, dir.resolve("missing.idx"));
+
+        // then
+        assertThat(jsonValue.getSize()).isEqualTo(3);
+    }
+
+    @Test
+    public void indexFileIsNotWrittenForInvalidInput() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        Path indexPath = dir.resolve("doc.json.idx");
+
+        // when
+        assertThrows(JsonParsingException.class, () -> {
+            Path path = Files.write(dir.resolve("doc.json"), new byte[]{'[', '"', (byte) 0xC0, '"', ']'});
+            parser.writeIndex(path, indexPath);
+        });
+
+        // then
+        assertThat(Files.exists(indexPath)).isFalse();
+    }
+
+    @Test
+    public void indexFileWithCompactIndex() throws IOException {
+        // given
+        SimdJsonParser parser = SimdJsonParser.builder().compactIndex(true).build();
+        Path path = Files.writeString(dir.resolve("doc.json"), " ".repeat(70_000) + "{\"a\": [true, null]}", UTF_8);
+        Path indexPath = dir.resolve("doc.json.idx");
+        parser.writeIndex(path, indexPath);
+
+        // when
+        JsonValue jsonValue = new SimdJsonParser().parse(path, indexPath);
+        UnsupportedOperationException ex = assertThrows(
+                UnsupportedOperationException.class,
+                () -> parser.parse(path, indexPath)
+        );
+
+        // then
+        assertThat(jsonValue.get("a").getSize()).isEqualTo(2);
+        assertThat(ex).hasMessage("A compact index is supported only for documents in heap memory that are parsed whole.");
+    }
+}
@@ -0,0 +1,190 @@
+package org.simdjson;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.simdjson.testutils.TestUtils.toUtf8;
+
+public class JsonCursorTest {
+
+    @Test
+    public void arrayElements() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("[1, -2.5, \"abc\", true, false, null, [3], {}]");
+        JsonCursor cursor = parser.parse(json, json.length).cursor();
+
+        // when
+        boolean descended = cursor.descend();
+
+        // then
+        assertThat(descended).isTrue();
+        assertThat(cursor.getDepth()).isEqualTo(1);
+        assertThat(cursor.isField()).isFalse();
+        assertThat(cursor.asLong()).isEqualTo(1);
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.asDouble()).isEqualTo(-2.5);
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.stringEquals(toUtf8("abc"))).isTrue();
+        assertThat(cursor.asString()).isEqualTo("abc");
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.asBoolean()).isTrue();
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.isBoolean()).isTrue();
+        assertThat(cursor.asBoolean()).isFalse();
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.isNull()).isTrue();
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.isArray()).isTrue();
+        assertThat(cursor.getSize()).isEqualTo(1);
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.isObject()).isTrue();
+        assertThat(cursor.next()).isFalse();
+        assertThat(cursor.isObject()).isTrue();
+    }
+
+    @Test
+    public void objectFields() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("{\"a\": 1, \"b\": {\"c\": [2, 3]}, \"d\": 4}");
+        JsonCursor cursor = parser.parse(json, json.length).cursor();
+
+        // when
+        List<String> keys = new ArrayList<>();
+        cursor.descend();
+        do {
+            keys.add(cursor.getKey());
+        } while (cursor.next());
+
+        // then
+        assertThat(keys).containsExactly("a", "b", "d");
+        assertThat(cursor.keyEquals(toUtf8("d"))).isTrue();
+        assertThat(cursor.asLong()).isEqualTo(4);
+    }
+
+    @Test
+    public void nestedNavigation() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("{\"a\": 1, \"b\": {\"c\": [2, 3]}, \"d\": 4}");
+        JsonCursor cursor = parser.parse(json, json.length).cursor();
+
+        // when
+        boolean found = cursor.descendToField(toUtf8("b")) && cursor.descendToField(toUtf8("c")) && cursor.descend();
+
+        // then
+        assertThat(found).isTrue();
+        assertThat(cursor.getDepth()).isEqualTo(3);
+        assertThat(cursor.asLong()).isEqualTo(2);
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.asLong()).isEqualTo(3);
+        cursor.ascend();
+        assertThat(cursor.isArray()).isTrue();
+        assertThat(cursor.keyEquals(toUtf8("c"))).isTrue();
+        cursor.ascend();
+        assertThat(cursor.keyEquals(toUtf8("b"))).isTrue();
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.keyEquals(toUtf8("d"))).isTrue();
+        cursor.ascend();
+        assertThat(cursor.isObject()).isTrue();
+        assertThat(cursor.isField()).isFalse();
+        assertThat(cursor.getDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void missingField() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("{\"a\": {\"b\": 1}, \"ab\": 2}");
+        JsonCursor cursor = parser.parse(json, json.length).cursor();
+
+        // when
+        boolean found = cursor.descendToField(toUtf8("b"));
+
+        // then
+        assertThat(found).isFalse();
+        assertThat(cursor.isObject()).isTrue();
+        assertThat(cursor.getDepth()).isEqualTo(0);
+        assertThat(cursor.descendToField(toUtf8("ab"))).isTrue();
+        assertThat(cursor.asLong()).isEqualTo(2);
+    }
+
+    @Test
+    public void emptyScopesAndScalarsCannotBeDescended() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("[[], {}, 1]");
+        JsonCursor cursor = parser.parse(json, json.length).cursor();
+        cursor.descend();
+
+        // when
+        boolean emptyArray = cursor.descend();
+        cursor.next();
+        boolean emptyObject = cursor.descend() || cursor.descendToField(toUtf8("a"));
+        cursor.next();
+        boolean scalar = cursor.descend() || cursor.descendToField(toUtf8("a"));
+
+        // then
+        assertThat(emptyArray).isFalse();
+        assertThat(emptyObject).isFalse();
+        assertThat(scalar).isFalse();
+        assertThat(cursor.getDepth()).isEqualTo(1);
+        assertThat(cursor.asLong()).isEqualTo(1);
+    }
+
+    @Test
+    public void ascendAtRoot() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("[1]");
+        JsonCursor cursor = parser.parse(json, json.length).cursor();
+
+        // when
+        IllegalStateException ex = assertThrows(IllegalStateException.class, cursor::ascend);
+
+        // then
+        assertThat(ex).hasMessage("The cursor is at the root of the document.");
+        assertThat(cursor.next()).isFalse();
+    }
+
+    @Test
+    public void deepDocument() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("[".repeat(100) + "1" + "]".repeat(100));
+        JsonCursor cursor = parser.parse(json, json.length).cursor();
+
+        // when
+        while (cursor.descend()) {
+            // descend to the innermost value
+        }
+
+        // then
+        assertThat(cursor.getDepth()).isEqualTo(100);
+        assertThat(cursor.asLong()).isEqualTo(1);
+    }
+
+    @Test
+    public void cursorIsReusable() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        JsonCursor cursor = new JsonCursor();
+        byte[] first = toUtf8("{\"a\": [1, 2]}");
+        cursor.reset(parser.parse(first, first.length));
+        cursor.descendToField(toUtf8("a"));
+        byte[] second = toUtf8("{\"b\": 3}");
+
+        // when
+        cursor.reset(parser.parse(second, second.length));
+
+        // then
+        assertThat(cursor.getDepth()).isEqualTo(0);
+        assertThat(cursor.descendToField(toUtf8("b"))).isTrue();
+        assertThat(cursor.asLong()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,173 @@
+package org.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.simdjson.schemas.RecordWithIntegerField;
+import org.simdjson.schemas.RecordWithStringField;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.simdjson.testutils.TestUtils.loadTestFile;
+import static org.simdjson.testutils.TestUtils.toUtf8;
+
+public class LazyParsingTest {
+
+    @Test
+    public void restOfDocumentIsNotIndexedOnceFieldsAreFound() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = documentWithTail("{\"field\": 42, \"rest\": [\"");
+        // The invalid byte is far beyond the first chunk, so it's never reached.
+        json[json.length - 10] = (byte) 0xC0;
+
+        // when
+        RecordWithIntegerField object = parser.parseLazily(json, json.length, RecordWithIntegerField.class);
+
+        // then
+        assertThat(object.field()).isEqualTo(42);
+        assertThrows(JsonParsingException.class, () -> parser.parse(json, json.length, RecordWithIntegerField.class));
+    }
+
+    @Test
+    public void missingFieldIsLookedUpInWholeDocument() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = documentWithTail("{\"other\": 42, \"rest\": [\"");
+
+        // when
+        RecordWithIntegerField object = parser.parseLazily(json, json.length, RecordWithIntegerField.class);
+
+        // then
+        assertThat(object.field()).isNull();
+    }
+
+    @Test
+    public void errorsBeforeFieldAreReported() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("{\"a\": \"x\", \"field\": \"abc\"}");
+        json[7] = (byte) 0xC0;
+
+        // when
+        JsonParsingException ex = assertThrows(
+                JsonParsingException.class,
+                () -> parser.parseLazily(json, json.length, RecordWithStringField.class)
+        );
+
+        // then
+        assertThat(ex).hasMessage("The input is not valid UTF-8");
+    }
+
+    @Test
+    public void unclosedRootObject() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("{\"field\": 1, \"a\": 2  \n");
+
+        // when
+        JsonParsingException ex = assertThrows(
+                JsonParsingException.class,
+                () -> parser.parseLazily(json, json.length, RecordWithIntegerField.class)
+        );
+
+        // then
+        assertThat(ex).hasMessage("Unclosed object. Missing '}' for starting '{'.");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 64})
+    public void unclosedStringCrossingChunkBoundary(int padding) {
+        // given
+        SimdJsonParser parser = SimdJsonParser.builder().lazyChunkSize(64).build();
+        String json = "{\"field\": \"" + "a".repeat(200) + "}";
+        byte[] buffer = Arrays.copyOf(toUtf8(json), json.length() + padding);
+
+        // when
+        JsonParsingException ex = assertThrows(
+                JsonParsingException.class,
+                () -> parser.parseLazily(buffer, json.length(), RecordWithStringField.class)
+        );
+
+        // then
+        assertThat(ex).hasMessage("Unclosed string. A string is opened, but never closed.");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {64, 100, 4096, 64 * 1024})
+    public void chunksOfDifferentSizes(int chunkSize) throws IOException {
+        // given
+        SimdJsonParser parser = SimdJsonParser.builder().lazyChunkSize(chunkSize).build();
+        byte[] json = loadTestFile("/twitter.json");
+
+        // when
+        Statuses statuses = parser.parseLazily(json, json.length, Statuses.class);
+
+        // then
+        Statuses expected = new SimdJsonParser().parse(json, json.length, Statuses.class);
+        assertThat(statuses).isEqualTo(expected);
+        assertThat(statuses.statuses()).hasSize(100);
+    }
+
+    @Test
+    public void nonObjectRootIsParsedWhole() {
+        // given
+        SimdJsonParser parser = SimdJsonParser.builder().lazyChunkSize(64).build();
+        byte[] json = toUtf8("[" + "1, ".repeat(1000) + "2] 3");
+
+        // when
+        JsonParsingException ex = assertThrows(
+                JsonParsingException.class,
+                () -> parser.parseLazily(json, json.length, int[].class)
+        );
+
+        // then
+        assertThat(ex).hasMessage("Unclosed array. Missing ']' for starting '['.");
+    }
+
+    @Test
+    public void regularAndLazyParsingWithSameParser() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("{\"field\": \"abc\", \"other\": [1, 2]}");
+
+        // when
+        RecordWithStringField lazy = parser.parseLazily(json, json.length, RecordWithStringField.class);
+        RecordWithStringField regular = parser.parse(json, json.length, RecordWithStringField.class);
+        JsonValue jsonValue = parser.parse(json, json.length);
+
+        // then
+        assertThat(lazy.field()).isEqualTo("abc");
+        assertThat(regular.field()).isEqualTo("abc");
+        assertThat(jsonValue.get("other").getSize()).isEqualTo(2);
+    }
+
+    @Test
+    public void tooSmallChunkSize() {
+        // when
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> SimdJsonParser.builder().lazyChunkSize(63)
+        );
+
+        // then
+        assertThat(ex).hasMessage("The chunk size has to be at least 64 bytes.");
+    }
+
+    private static byte[] documentWithTail(String head) {
+        return toUtf8(head + "x".repeat(1024 * 1024) + "\"]}");
+    }
+
+    record User(boolean default_profile, String screen_name) {
+    }
+
+    record Status(User user, long id) {
+    }
+
+    record Statuses(List<Status> statuses) {
+    }
+}
@@ -0,0 +1,118 @@
+package org.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.simdjson.schemas.RecordWithStringField;
+
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.simdjson.testutils.TestUtils.toUtf8;
+import static org.simdjson.testutils.TestUtils.toUtf8NativeSegment;
+
+public class LineFilterParsingTest {
+
+    private static final String LOGS = """
+            {"level":"INFO","msg":"a"}
+            {"level":"ERROR","msg":"b"}
+            {"level":"INFO","msg":"c"}
+
+            {"level":"ERROR","msg":"d"}\r
+            {"level":"INFO","msg":"ERROR"}
+            {"level":"ERROR","msg":"e"}""";
+
+    @Test
+    public void onlyLinesContainingPatternAreParsed() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8(LOGS);
+
+        // when
+        Iterator<JsonValue> it = parser.parseLinesContaining(json, json.length, toUtf8("\"level\":\"ERROR\""));
+
+        // then
+        List<String> messages = new ArrayList<>();
+        it.forEachRemaining(document -> messages.add(document.get("msg").asString()));
+        assertThat(messages).containsExactly("b", "d", "e");
+    }
+
+    @Test
+    public void patternMatchesAnywhereInLine() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8(LOGS);
+
+        // when
+        Iterator<RecordWithStringField> it = parser.parseLinesContaining(json, json.length, toUtf8("ERROR"), RecordWithStringField.class);
+
+        // then
+        int count = 0;
+        while (it.hasNext()) {
+            it.next();
+            count++;
+        }
+        assertThat(count).isEqualTo(4);
+    }
+
+    @Test
+    public void nativeSegment() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        MemorySegment json = toUtf8NativeSegment(LOGS);
+
+        // when
+        Iterator<JsonValue> it = parser.parseLinesContaining(json, toUtf8("\"msg\":\"c\""));
+
+        // then
+        assertThat(it.next().get("level").asString()).isEqualTo("INFO");
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @Test
+    public void invalidLinesWithoutPatternAreSkipped() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("{\"a\" 1}\n[1, 2]\n{\"b\": [}\n");
+
+        // when
+        Iterator<JsonValue> it = parser.parseLinesContaining(json, json.length, toUtf8("[1"));
+
+        // then
+        assertThat(it.next().getSize()).isEqualTo(2);
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @Test
+    public void invalidLineWithPattern() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("{\"a\": 1}\n{\"a\" 2}\n");
+        Iterator<JsonValue> it = parser.parseLinesContaining(json, json.length, toUtf8("\"a\""));
+        it.next();
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, it::next);
+
+        // then
+        assertThat(ex).hasMessage("Missing colon after key in object");
+    }
+
+    @Test
+    public void patternWithNewline() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8(LOGS);
+
+        // when
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> parser.parseLinesContaining(json, json.length, toUtf8("}\n{"))
+        );
+
+        // then
+        assertThat(ex).hasMessage("The pattern cannot contain a newline.");
+    }
+}
@@ -0,0 +1,206 @@
+package org.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.simdjson.schemas.RecordWithStringField;
+import org.simdjson.testutils.RandomStringSource;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.simdjson.testutils.SimdJsonAssertions.assertThat;
+import static org.simdjson.testutils.TestUtils.loadTestFile;
+import static org.simdjson.testutils.TestUtils.toNativeSegment;
+import static org.simdjson.testutils.TestUtils.toUtf8;
+import static org.simdjson.testutils.TestUtils.toUtf8NativeSegment;
+
+public class MemorySegmentParsingTest {
+
+    @Test
+    public void objectFromNativeSegment() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        MemorySegment json = toUtf8NativeSegment("{\"a\": \"b\", \"c\": [1, 2.5, true, null]}");
+
+        // when
+        JsonValue jsonValue = parser.parse(json);
+
+        // then
+        assertThat(jsonValue.get("a")).isEqualTo("b");
+        Iterator<JsonValue> it = jsonValue.get("c").arrayIterator();
+        assertThat(it.next()).isEqualTo(1);
+        assertThat(it.next()).isEqualTo(2.5);
+        assertThat(it.next()).isEqualTo(true);
+        assertThat(it.next().isNull()).isTrue();
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @Test
+    public void nativeSegmentLargerThanWindow() throws IOException {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = loadTestFile("/twitter.json");
+        MemorySegment segment = toNativeSegment(json);
+
+        // when
+        JsonValue jsonValue = parser.parse(segment);
+
+        // then
+        JsonValue expected = new SimdJsonParser().parse(json, json.length);
+        Iterator<JsonValue> expectedStatuses = expected.get("statuses").arrayIterator();
+        Iterator<JsonValue> statuses = jsonValue.get("statuses").arrayIterator();
+        while (expectedStatuses.hasNext()) {
+            JsonValue expectedStatus = expectedStatuses.next();
+            JsonValue status = statuses.next();
+            assertThat(status.get("id")).isEqualTo(expectedStatus.get("id").asLong());
+            assertThat(status.get("text")).isEqualTo(expectedStatus.get("text").asString());
+        }
+        assertThat(statuses.hasNext()).isFalse();
+    }
+
+    @Test
+    public void stringsLongerThanWindow() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        String longString = "a".repeat(200_000);
+        MemorySegment json = toUtf8NativeSegment(
+                "[\"" + longString + "\", " + " ".repeat(100_000) + "{\"b\": \"" + longString + "\"}, 1]"
+        );
+
+        // when
+        JsonValue jsonValue = parser.parse(json);
+
+        // then
+        Iterator<JsonValue> it = jsonValue.arrayIterator();
+        assertThat(it.next()).isEqualTo(longString);
+        assertThat(it.next().get("b")).isEqualTo(longString);
+        assertThat(it.next()).isEqualTo(1);
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @Test
+    public void schemaBasedParsingOfNativeSegmentLargerThanWindow() throws IOException {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        MemorySegment segment = toNativeSegment(loadTestFile("/twitter.json"));
+
+        // when
+        Twitter twitter = parser.parse(segment, Twitter.class);
+
+        // then
+        assertThat(twitter.statuses()).hasSize(100);
+        assertThat(twitter.search_metadata().count()).isEqualTo(100);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[[1]", "{\"a\": 1}{", "[1, 2", "{\"a\"}", "[1,]"})
+    public void invalidNativeSegment(String jsonStr) {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        MemorySegment json = toUtf8NativeSegment(jsonStr);
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, () -> parser.parse(json));
+
+        // then
+        byte[] bytes = toUtf8(jsonStr);
+        JsonParsingException expected = assertThrows(JsonParsingException.class, () -> parser.parse(bytes, bytes.length));
+        assertThat(ex).hasMessage(expected.getMessage());
+    }
+
+    @ParameterizedTest
+    @RandomStringSource
+    public void stringAtRootOfUnpaddedSegment(String jsonStr, String expected) {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        MemorySegment json = toUtf8NativeSegment("\"" + jsonStr + "\"");
+
+        // when
+        JsonValue jsonValue = parser.parse(json);
+
+        // then
+        assertThat(jsonValue).isEqualTo(expected);
+    }
+
+    @Test
+    public void sliceOfHeapSegment() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        MemorySegment json = MemorySegment.ofArray(toUtf8("[1, 2]{\"a\": \"b\"}")).asSlice(6);
+
+        // when
+        JsonValue jsonValue = parser.parse(json);
+
+        // then
+        assertThat(jsonValue.get("a")).isEqualTo("b");
+    }
+
+    @Test
+    public void schemaBasedParsingOfNativeSegment() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        MemorySegment json = toUtf8NativeSegment("{\"field\": \"abc\"}");
+
+        // when
+        RecordWithStringField object = parser.parse(json, RecordWithStringField.class);
+
+        // then
+        assertThat(object.field()).isEqualTo("abc");
+    }
+
+    @Test
+    public void file(@TempDir Path dir) throws IOException {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        Path file = Files.write(dir.resolve("twitter.json"), loadTestFile("/twitter.json"));
+
+        // when
+        JsonValue jsonValue = parser.parse(file);
+
+        // then
+        assertThat(jsonValue.get("statuses").getSize()).isEqualTo(100);
+    }
+
+    @Test
+    public void schemaBasedParsingOfFile(@TempDir Path dir) throws IOException {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        Path file = Files.write(dir.resolve("record.json"), toUtf8("{\"field\": \"abc\"}"));
+
+        // when
+        RecordWithStringField object = parser.parse(file, RecordWithStringField.class);
+
+        // then
+        assertThat(object.field()).isEqualTo("abc");
+    }
+
+    @Test
+    public void emptyFile(@TempDir Path dir) throws IOException {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        Path file = Files.createFile(dir.resolve("empty.json"));
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, () -> parser.parse(file));
+
+        // then
+        assertThat(ex)
+                .hasMessage("No structural element found.");
+    }
+
+    private record Twitter(List<Status> statuses, SearchMetadata search_metadata) {
+    }
+
+    private record Status(long id, String text) {
+    }
+
+    private record SearchMetadata(int count) {
+    }
+}
@@ -0,0 +1,165 @@
+package org.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import java.util.Random;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.simdjson.testutils.TestUtils.loadTestFile;
+import static org.simdjson.testutils.TestUtils.toUtf8;
+
+public class MinifyTest {
+
+    private static final String[] TOKENS = {"{", "}", "[", "]", ":", ",", "\"", "\\", "\\\\", " ", "\t", "\n", "\r", "a", "1", "ż", "true"};
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{ \"a\" : [ 1 , 2 ] }",
+            "[\"a b\", \"  \"]",
+            "[\"\\\" \", \" \\\\\", \"\\\\\\\" \"]",
+            "\n\t\r [ ] \n",
+            "\" unclosed ",
+            ""
+    })
+    public void whitespaceOutsideStringsIsRemoved(String jsonStr) {
+        // given
+        byte[] json = toUtf8(jsonStr);
+        byte[] out = new byte[json.length];
+
+        // when
+        int len = SimdJson.minify(json, json.length, out);
+
+        // then
+        assertThat(new String(out, 0, len, UTF_8)).isEqualTo(minifiedByReference(jsonStr));
+    }
+
+    @Test
+    public void prettyPrintedFile() throws IOException {
+        // given
+        byte[] json = loadTestFile("/twitter.json");
+        byte[] out = new byte[json.length];
+
+        // when
+        int len = SimdJson.minify(json, json.length, out);
+
+        // then
+        String minified = new String(out, 0, len, UTF_8);
+        assertThat(minified).isEqualTo(minifiedByReference(new String(json, UTF_8)));
+        assertThat(len).isLessThan(json.length);
+        JsonValue jsonValue = new SimdJsonParser().parse(out, len);
+        assertThat(jsonValue.get("statuses").getSize()).isEqualTo(100);
+    }
+
+    @Test
+    public void randomInputs() {
+        // given
+        Random random = new Random(42);
+
+        for (int i = 0; i < 1000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int tokens = random.nextInt(300);
+            for (int j = 0; j < tokens; j++) {
+                sb.append(TOKENS[random.nextInt(TOKENS.length)]);
+            }
+            byte[] json = toUtf8(sb.toString());
+            byte[] out = new byte[json.length];
+
+            // when
+            int len = SimdJson.minify(json, json.length, out);
+
+            // then
+            assertThat(new String(out, 0, len, UTF_8))
+                    .describedAs(sb.toString())
+                    .isEqualTo(minifiedByReference(sb.toString()));
+        }
+    }
+
+    @Test
+    public void minifyingInPlace() {
+        // given
+        String jsonStr = "[ " + "{ \"a b\" : 1 },\n  ".repeat(100) + " null ]";
+        byte[] json = toUtf8(jsonStr);
+
+        // when
+        int len = SimdJson.minify(json, json.length, json);
+
+        // then
+        assertThat(new String(json, 0, len, UTF_8)).isEqualTo(minifiedByReference(jsonStr));
+    }
+
+    @Test
+    public void nativeSegment() throws IOException {
+        // given
+        byte[] json = loadTestFile("/twitter.json");
+        MemorySegment in = Arena.ofAuto().allocate(json.length);
+        MemorySegment.copy(json, 0, in, JAVA_BYTE, 0, json.length);
+        MemorySegment out = Arena.ofAuto().allocate(json.length);
+
+        // when
+        long len = SimdJson.minify(in, out);
+
+        // then
+        byte[] minified = out.asSlice(0, len).toArray(JAVA_BYTE);
+        assertThat(new String(minified, UTF_8)).isEqualTo(minifiedByReference(new String(json, UTF_8)));
+    }
+
+    @Test
+    public void heapSegment() {
+        // given
+        String jsonStr = "{ \"a\" : \" b \" }";
+        byte[] json = toUtf8("xx" + jsonStr);
+        MemorySegment in = MemorySegment.ofArray(json).asSlice(2);
+        byte[] out = new byte[json.length + 3];
+
+        // when
+        long len = SimdJson.minify(in, MemorySegment.ofArray(out).asSlice(3));
+
+        // then
+        assertThat(new String(out, 3, (int) len, UTF_8)).isEqualTo("{\"a\":\" b \"}");
+    }
+
+    @Test
+    public void outputSmallerThanInput() {
+        // given
+        byte[] json = toUtf8("[1, 2]");
+
+        // when
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> SimdJson.minify(json, json.length, new byte[3])
+        );
+
+        // then
+        assertThat(ex)
+                .hasMessage("The output is smaller than the input: 3 < 6 bytes.");
+    }
+
+    private static String minifiedByReference(String json) {
+        // As in stage 1, a backslash escapes the next character also outside strings.
+        StringBuilder sb = new StringBuilder();
+        boolean inString = false;
+        boolean escaped = false;
+        for (char c : json.toCharArray()) {
+            if (escaped) {
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '"') {
+                inString = !inString;
+            }
+            if (inString || Arrays.binarySearch(new char[]{'\t', '\n', '\r', ' '}, c) < 0) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,131 @@
+package org.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.simdjson.schemas.RecordWithIntegerField;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.simdjson.testutils.SimdJsonAssertions.assertThat;
+import static org.simdjson.testutils.TestUtils.toUtf8;
+import static org.simdjson.testutils.TestUtils.toUtf8NativeSegment;
+
+public class ParallelNdjsonParserTest {
+
+    @Test
+    public void unorderedParsing() {
+        // given
+        ParallelNdjsonParser parser = new ParallelNdjsonParser(new ForkJoinPool(4), 256, 16, 1024);
+        MemorySegment json = MemorySegment.ofArray(toUtf8(ndjsonWithIds(10_000)));
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        // when
+        parser.forEach(json, document -> ids.add(document.get("field").asLong()));
+
+        // then
+        assertThat(ids).containsExactlyInAnyOrderElementsOf(LongStream.range(0, 10_000).boxed().toList());
+    }
+
+    @Test
+    public void unorderedSchemaBasedParsingOfNativeSegment() {
+        // given
+        ParallelNdjsonParser parser = new ParallelNdjsonParser(new ForkJoinPool(4), 256, 16, 1024);
+        MemorySegment json = toUtf8NativeSegment(ndjsonWithIds(10_000));
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+        // when
+        parser.forEach(json, RecordWithIntegerField.class, record -> ids.add(record.field()));
+
+        // then
+        assertThat(ids).containsExactlyInAnyOrderElementsOf(IntStream.range(0, 10_000).boxed().toList());
+    }
+
+    @Test
+    public void orderedSchemaBasedParsing() {
+        // given
+        ParallelNdjsonParser parser = new ParallelNdjsonParser(new ForkJoinPool(4), 256, 16, 1024);
+        MemorySegment json = MemorySegment.ofArray(toUtf8(ndjsonWithIds(10_000)));
+        List<Integer> ids = new ArrayList<>();
+
+        // when
+        parser.forEachOrdered(json, RecordWithIntegerField.class, record -> ids.add(record.field()));
+
+        // then
+        assertThat(ids).containsExactlyElementsOf(IntStream.range(0, 10_000).boxed().toList());
+    }
+
+    @Test
+    public void orderedParsingOfFile(@TempDir Path tempDir) throws IOException {
+        // given
+        ParallelNdjsonParser parser = new ParallelNdjsonParser(new ForkJoinPool(4), 256, 16, 1024);
+        Path path = tempDir.resolve("documents.ndjson");
+        Files.writeString(path, ndjsonWithIds(10_000));
+        List<Integer> ids = new ArrayList<>();
+
+        // when
+        parser.forEachOrdered(path, RecordWithIntegerField.class, record -> ids.add(record.field()));
+
+        // then
+        assertThat(ids).containsExactlyElementsOf(IntStream.range(0, 10_000).boxed().toList());
+    }
+
+    @Test
+    public void parsingOnlyLinesContainingPattern() {
+        // given
+        ParallelNdjsonParser parser = new ParallelNdjsonParser(new ForkJoinPool(4), 256, 16, 1024);
+        MemorySegment json = toUtf8NativeSegment(ndjsonWithIds(10_000));
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        // when
+        parser.forEach(json, toUtf8("7}"), document -> ids.add(document.get("field").asLong()));
+
+        // then
+        assertThat(ids).containsExactlyInAnyOrderElementsOf(LongStream.range(0, 10_000).filter(id -> id % 10 == 7).boxed().toList());
+    }
+
+    @Test
+    public void invalidDocument() {
+        // given
+        ParallelNdjsonParser parser = new ParallelNdjsonParser(new ForkJoinPool(4), 256, 16, 1024);
+        MemorySegment json = MemorySegment.ofArray(toUtf8(ndjsonWithIds(5_000) + "{\"field\" 1}\n" + ndjsonWithIds(5_000)));
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, () -> parser.forEach(json, document -> {}));
+
+        // then
+        assertThat(ex)
+                .hasMessage("Missing colon after key in object");
+    }
+
+    @Test
+    public void emptyInput() {
+        // given
+        ParallelNdjsonParser parser = new ParallelNdjsonParser(new ForkJoinPool(4), 256, 16, 1024);
+        List<Integer> ids = new ArrayList<>();
+
+        // when
+        parser.forEachOrdered(MemorySegment.ofArray(new byte[0]), RecordWithIntegerField.class, record -> ids.add(record.field()));
+
+        // then
+        assertThat(ids).isEmpty();
+    }
+
+    private static String ndjsonWithIds(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("{\"field\": ").append(i).append("}\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,192 @@
+package org.simdjson;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.simdjson.testutils.TestUtils.toUtf8;
+
+public class ParallelStructuralIndexerTest {
+
+    private static final String[] TOKENS = {"{", "}", "[", "]", ":", ",", "\"", "\"", "\\", "\\", " ", "a", "1", "ż", "true"};
+
+    @Test
+    public void sameResultAsSerialIndexing() {
+        // given
+        BitIndexes bitIndexes = new BitIndexes(4096);
+        ParallelStructuralIndexer parallelIndexer = new ParallelStructuralIndexer(
+                new StructuralIndexer(bitIndexes), bitIndexes, 8, 64
+        );
+        Random random = new Random(42);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int i = 0; i < 2000; i++) {
+                byte[] input = randomInput(random, 64 + random.nextInt(2000));
+                try {
+                    // when
+                    String result = indexingResult(() -> parallelIndexer.index(input, 0, input.length, executor), bitIndexes);
+
+                    // then
+                    assertThat(result).isEqualTo(serialIndexingResult(input));
+                } catch (Throwable e) {
+                    fail("Failed for input: " + new String(input), e);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void segmentBoundaryAfterBackslash() {
+        // given
+        BitIndexes bitIndexes = new BitIndexes(1024);
+        ParallelStructuralIndexer parallelIndexer = new ParallelStructuralIndexer(
+                new StructuralIndexer(bitIndexes), bitIndexes, 4, 64
+        );
+        byte[] input = toUtf8("[\"" + "a".repeat(61) + "\\\"" + "b".repeat(64) + "\", 1, \"" + "c".repeat(100) + "\"]");
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            // when
+            parallelIndexer.index(input, 0, input.length, executor);
+        }
+
+        // then
+        assertThat(indexes(bitIndexes)).isEqualTo(serialIndexingResult(input));
+    }
+
+    @Test
+    public void unescapedCharacterInStringSpanningSegments() {
+        // given
+        BitIndexes bitIndexes = new BitIndexes(1024);
+        ParallelStructuralIndexer parallelIndexer = new ParallelStructuralIndexer(
+                new StructuralIndexer(bitIndexes), bitIndexes, 4, 64
+        );
+        byte[] input = toUtf8("[\"" + "a".repeat(100) + "\n" + "b".repeat(100) + "\"]");
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            // when
+            JsonParsingException ex = assertThrows(
+                    JsonParsingException.class,
+                    () -> parallelIndexer.index(input, 0, input.length, executor)
+            );
+
+            // then
+            assertThat(ex)
+                    .hasMessage("Unescaped characters. Within strings, there are characters that should be escaped.");
+        }
+    }
+
+    @Test
+    public void invalidUtf8AtSegmentBoundary() {
+        // given
+        BitIndexes bitIndexes = new BitIndexes(1024);
+        ParallelStructuralIndexer parallelIndexer = new ParallelStructuralIndexer(
+                new StructuralIndexer(bitIndexes), bitIndexes, 4, 64
+        );
+        byte[] input = toUtf8("[\"" + "a".repeat(62) + "żżż" + "b".repeat(200) + "\"]");
+        input[64] = (byte) 0x80;
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            // when
+            JsonParsingException ex = assertThrows(
+                    JsonParsingException.class,
+                    () -> parallelIndexer.index(input, 0, input.length, executor)
+            );
+
+            // then
+            assertThat(ex)
+                    .hasMessage("The input is not valid UTF-8");
+        }
+    }
+
+    @Test
+    public void incompleteUtf8SequenceAtSegmentEnd() {
+        // given
+        BitIndexes bitIndexes = new BitIndexes(1024);
+        ParallelStructuralIndexer parallelIndexer = new ParallelStructuralIndexer(
+                new StructuralIndexer(bitIndexes), bitIndexes, 4, 64
+        );
+        byte[] input = toUtf8("[\"" + "a".repeat(61) + "ż" + "b".repeat(200) + "\"]");
+        input[64] = 'c';
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            // when
+            JsonParsingException ex = assertThrows(
+                    JsonParsingException.class,
+                    () -> parallelIndexer.index(input, 0, input.length, executor)
+            );
+
+            // then
+            assertThat(ex)
+                    .hasMessage("The input is not valid UTF-8");
+        }
+    }
+
+    @Test
+    public void largeDocument() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 100_000; i++) {
+            sb.append(i == 0 ? "" : ",").append("{\"id\": ").append(i).append(", \"name\": \"żółć \\\"").append(i).append("\\\"\"}");
+        }
+        byte[] json = toUtf8(sb.append("]").toString());
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            // when
+            JsonValue jsonValue = parser.parse(json, json.length, executor);
+
+            // then
+            Iterator<JsonValue> it = jsonValue.arrayIterator();
+            for (int i = 0; i < 100_000; i++) {
+                JsonValue object = it.next();
+                assertThat(object.get("id").asLong()).isEqualTo(i);
+                assertThat(object.get("name").asString()).isEqualTo("żółć \"" + i + "\"");
+            }
+            assertThat(it.hasNext()).isFalse();
+        }
+    }
+
+    private static byte[] randomInput(Random random, int minLength) {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < minLength) {
+            String token = TOKENS[random.nextInt(TOKENS.length)];
+            sb.append(token.repeat(1 + random.nextInt(token.equals("\\") ? 4 : 2)));
+        }
+        return toUtf8(sb.toString());
+    }
+
+    private static String serialIndexingResult(byte[] input) {
+        BitIndexes bitIndexes = new BitIndexes(input.length + 64);
+        StructuralIndexer indexer = new StructuralIndexer(bitIndexes);
+        return indexingResult(() -> {
+            Utf8Validator.validate(input, 0, input.length);
+            indexer.index(input, input.length);
+        }, bitIndexes);
+    }
+
+    private static String indexingResult(Runnable indexing, BitIndexes bitIndexes) {
+        try {
+            indexing.run();
+            return indexes(bitIndexes);
+        } catch (JsonParsingException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    private static String indexes(BitIndexes bitIndexes) {
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < bitIndexes.size(); i++) {
+            indexes.add(bitIndexes.get(i));
+        }
+        return Arrays.toString(indexes.toArray());
+    }
+}
@@ -0,0 +1,239 @@
+package org.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.simdjson.schemas.RecordWithIntegerField;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.simdjson.testutils.SimdJsonAssertions.assertThat;
+import static org.simdjson.testutils.TestUtils.toUtf8;
+
+public class RootArrayStreamParsingTest {
+
+    @Test
+    public void elementsOfDifferentTypes() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        InputStream json = inputStream(" [{\"a\": 1}, [2, 3], \"abc\", 4, true, null, {}] ");
+
+        // when
+        Iterator<JsonValue> it = parser.parseArrayElements(json);
+
+        // then
+        assertThat(it.next().get("a")).isEqualTo(1);
+        assertThat(it.next().arrayIterator().next()).isEqualTo(2);
+        assertThat(it.next()).isEqualTo("abc");
+        assertThat(it.next()).isEqualTo(4);
+        assertThat(it.next()).isEqualTo(true);
+        assertThat(it.next().isNull()).isTrue();
+        assertThat(it.next().isObject()).isTrue();
+        assertThat(it.hasNext()).isFalse();
+        assertThrows(NoSuchElementException.class, it::next);
+    }
+
+    @Test
+    public void elementsSpanningMultipleWindows() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser(256, 16);
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            sb.append(i == 0 ? "" : ",").append(i % 3 == 0 ? "\n" : " ");
+            sb.append("{\"id\": ").append(i).append(", \"name\": \"żółć ").append(i).append("\"}, ").append(i);
+        }
+        sb.append("]");
+
+        // when
+        Iterator<JsonValue> it = parser.parseArrayElements(inputStream(sb.toString()));
+
+        // then
+        for (int i = 0; i < 1000; i++) {
+            JsonValue object = it.next();
+            assertThat(object.get("id")).isEqualTo(i);
+            assertThat(object.get("name")).isEqualTo("żółć " + i);
+            assertThat(it.next()).isEqualTo(i);
+        }
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @Test
+    public void elementLargerThanWindow() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser(256, 16);
+        String largeString = "a".repeat(1000);
+        InputStream json = inputStream("[1, \"" + largeString + "\", [" + "2, ".repeat(500) + "3], 4]");
+
+        // when
+        Iterator<JsonValue> it = parser.parseArrayElements(json);
+
+        // then
+        assertThat(it.next()).isEqualTo(1);
+        assertThat(it.next()).isEqualTo(largeString);
+        int count = 0;
+        for (Iterator<JsonValue> elements = it.next().arrayIterator(); elements.hasNext(); elements.next()) {
+            count++;
+        }
+        assertThat(count).isEqualTo(501);
+        assertThat(it.next()).isEqualTo(4);
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @Test
+    public void schemaBasedParsingOfChannel() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser(256, 16);
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 100; i++) {
+            sb.append(i == 0 ? "" : ",\n").append("{\"field\": ").append(i).append("}");
+        }
+        ReadableByteChannel json = Channels.newChannel(inputStream(sb.append("]").toString()));
+
+        // when
+        Iterator<RecordWithIntegerField> it = parser.parseArrayElements(json, RecordWithIntegerField.class);
+
+        // then
+        for (int i = 0; i < 100; i++) {
+            assertThat(it.next().field()).isEqualTo(i);
+        }
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[]", " [ ] ", "[\n\n]\n"})
+    public void emptyArray(String input) {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+
+        // when
+        Iterator<JsonValue> it = parser.parseArrayElements(inputStream(input));
+
+        // then
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @Test
+    public void emptyArraySpanningMultipleWindows() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser(256, 16);
+
+        // when
+        Iterator<JsonValue> it = parser.parseArrayElements(inputStream("[" + " ".repeat(1000) + "]"));
+
+        // then
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @Test
+    public void invalidElementDoesNotStopTheStream() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        Iterator<JsonValue> it = parser.parseArrayElements(inputStream("[{\"a\": 1}, {\"a\" 2}, {\"a\": 3}]"));
+        assertThat(it.next().get("a")).isEqualTo(1);
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, it::next);
+
+        // then
+        assertThat(ex)
+                .hasMessage("Missing colon after key in object");
+        assertThat(it.next().get("a")).isEqualTo(3);
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"{\"a\": 1}", "1", "\"abc\""})
+    public void rootIsNotArray(String input) {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        Iterator<JsonValue> it = parser.parseArrayElements(inputStream(input));
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, it::hasNext);
+
+        // then
+        assertThat(ex)
+                .hasMessage("The root of the document is not an array.");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[", "[1, 2", "[1, 2,", "[[1, 2]"})
+    public void unclosedArray(String input) {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        Iterator<JsonValue> it = parser.parseArrayElements(inputStream(input));
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, () -> {
+            while (it.hasNext()) {
+                it.next();
+            }
+        });
+
+        // then
+        assertThat(ex)
+                .hasMessage("Unclosed array. Missing ']' for starting '['.");
+    }
+
+    @Test
+    public void missingComma() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        Iterator<JsonValue> it = parser.parseArrayElements(inputStream("[1 2]"));
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, it::hasNext);
+
+        // then
+        assertThat(ex)
+                .hasMessage("Missing comma between array values");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[1,]", "[1,,2]", "[,1]"})
+    public void missingElement(String input) {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        Iterator<JsonValue> it = parser.parseArrayElements(inputStream(input));
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, () -> {
+            while (it.hasNext()) {
+                it.next();
+            }
+        });
+
+        // then
+        assertThat(ex)
+                .hasMessage("Unrecognized primitive. Expected: string, number, 'true', 'false' or 'null'.");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[1] 2", "[] []"})
+    public void moreThanOneValueAtRoot(String input) {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        Iterator<JsonValue> it = parser.parseArrayElements(inputStream(input));
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, () -> {
+            while (it.hasNext()) {
+                it.next();
+            }
+        });
+
+        // then
+        assertThat(ex)
+                .hasMessage("More than one JSON value at the root of the document, or extra characters at the end of the JSON!");
+    }
+
+    private static InputStream inputStream(String json) {
+        return new ByteArrayInputStream(toUtf8(json));
+    }
+}
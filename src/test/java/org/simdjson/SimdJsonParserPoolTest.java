@@ -0,0 +1,126 @@
+package org.simdjson;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.simdjson.testutils.SimdJsonAssertions.assertThat;
+import static org.simdjson.testutils.TestUtils.toUtf8;
+
+public class SimdJsonParserPoolTest {
+
+    @Test
+    public void smallestSufficientSizeClassIsLeased() throws InterruptedException {
+        // given
+        SimdJsonParserPool pool = new SimdJsonParserPool(2, 1024 * 1024, 16);
+
+        // when
+        try (SimdJsonParserPool.Lease small = pool.lease(100);
+             SimdJsonParserPool.Lease medium = pool.lease(64 * 1024 + 1);
+             SimdJsonParserPool.Lease large = pool.lease(1024 * 1024)) {
+
+            // then
+            assertThat(small.capacity()).isEqualTo(64 * 1024);
+            assertThat(medium.capacity()).isEqualTo(256 * 1024);
+            assertThat(large.capacity()).isEqualTo(1024 * 1024);
+        }
+    }
+
+    @Test
+    public void parserIsReusedAfterItIsReturned() throws InterruptedException {
+        // given
+        SimdJsonParserPool pool = new SimdJsonParserPool(2, 1024 * 1024, 16);
+        SimdJsonParser returned;
+        try (SimdJsonParserPool.Lease lease = pool.lease(100)) {
+            returned = lease.parser();
+        }
+
+        // when
+        try (SimdJsonParserPool.Lease lease = pool.lease(200)) {
+
+            // then
+            assertThat(lease.parser()).isSameAs(returned);
+        }
+    }
+
+    @Test
+    public void parserCannotBeUsedAfterItIsReturned() throws InterruptedException {
+        // given
+        SimdJsonParserPool pool = new SimdJsonParserPool(2, 1024 * 1024, 16);
+        SimdJsonParserPool.Lease lease = pool.lease(100);
+        lease.close();
+
+        // when
+        IllegalStateException ex = assertThrows(IllegalStateException.class, lease::parser);
+
+        // then
+        assertThat(ex)
+                .hasMessage("The parser has already been returned to the pool.");
+    }
+
+    @Test
+    public void documentLargerThanMaxCapacity() {
+        // given
+        SimdJsonParserPool pool = new SimdJsonParserPool(2, 1024 * 1024, 16);
+
+        // when
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> pool.lease(1024 * 1024 + 1));
+
+        // then
+        assertThat(ex)
+                .hasMessage("The document is too large: 1048577 bytes. The maximum capacity of the pool is 1048576 bytes.");
+    }
+
+    @Test
+    public void leaseWaitsForReturnedParserWhenSizeClassIsExhausted() throws Exception {
+        // given
+        SimdJsonParserPool pool = new SimdJsonParserPool(1, 1024 * 1024, 16);
+        SimdJsonParserPool.Lease lease = pool.lease(100);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> waiting = executor.submit(() -> {
+                try (SimdJsonParserPool.Lease next = pool.lease(100)) {
+                    return next.capacity();
+                }
+            });
+            assertThrows(TimeoutException.class, () -> waiting.get(100, TimeUnit.MILLISECONDS));
+
+            // when
+            lease.close();
+
+            // then
+            assertThat(waiting.get(10, TimeUnit.SECONDS)).isEqualTo(64 * 1024);
+        }
+    }
+
+    @Test
+    public void manyVirtualThreadsShareFewParsers() throws Exception {
+        // given
+        SimdJsonParserPool pool = new SimdJsonParserPool(2, 1024 * 1024, 16);
+        List<Future<Long>> results = new ArrayList<>();
+
+        // when
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1000; i++) {
+                byte[] json = toUtf8("{\"id\": " + i + "}");
+                results.add(executor.submit(() -> {
+                    try (SimdJsonParserPool.Lease lease = pool.lease(json.length)) {
+                        return lease.parser().parse(json, json.length).get("id").asLong();
+                    }
+                }));
+            }
+        }
+
+        // then
+        for (int i = 0; i < 1000; i++) {
+            assertThat(results.get(i).get()).isEqualTo(i);
+        }
+    }
+}
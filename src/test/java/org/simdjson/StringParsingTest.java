@@ -190,6 +190,27 @@ public class StringParsingTest {
         assertThat(it.hasNext()).isFalse();
     }
 
+    @Test
+    public void stringWithEscapesEndingAtTheEndOfBuffer() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+
+        for (int len = 0; len < 200; len++) {
+            String prefix = "a".repeat(len);
+            try {
+                byte[] json = toUtf8("\"" + prefix + "\\n\\u0105\\uD83D\\uDE00\"");
+
+                // when
+                JsonValue jsonValue = parser.parse(json, json.length);
+
+                // then
+                assertThat(jsonValue).isEqualTo(prefix + "\ną😀");
+            } catch (Throwable e) {
+                fail("Failed for length: " + len, e);
+            }
+        }
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"/wide_bench.json", "/deep_bench.json"})
     public void issue26(String file) throws IOException {
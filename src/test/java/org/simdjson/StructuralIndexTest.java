@@ -0,0 +1,164 @@
+package org.simdjson;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.simdjson.testutils.TestUtils.toUtf8;
+import static org.simdjson.testutils.TestUtils.toUtf8NativeSegment;
+
+public class StructuralIndexTest {
+
+    @Test
+    public void positionsOfStructuralCharactersAndScalars() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("{\"a\": [1, \"{,}\", true]}");
+
+        // when
+        StructuralIndex index = parser.index(json, json.length);
+
+        // then
+        assertThat(index.count()).isEqualTo(11);
+        assertThat(index.toArray()).containsExactly(0, 1, 4, 6, 7, 8, 10, 15, 17, 21, 22);
+        assertThat(index.get(3)).isEqualTo(6);
+    }
+
+    @Test
+    public void iteration() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("[1, 2]");
+        StructuralIndex index = parser.index(json, json.length);
+
+        // when
+        List<Integer> fromForEach = new ArrayList<>();
+        index.forEach(fromForEach::add);
+        List<Integer> fromIterator = new ArrayList<>();
+        PrimitiveIterator.OfInt it = index.iterator();
+        it.forEachRemaining((int position) -> fromIterator.add(position));
+
+        // then
+        assertThat(fromForEach).containsExactly(0, 1, 2, 4, 5);
+        assertThat(fromIterator).containsExactly(0, 1, 2, 4, 5);
+        assertThrows(NoSuchElementException.class, it::nextInt);
+    }
+
+    @Test
+    public void positionsRelativeToOffset() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("xx[1]yy");
+
+        // when
+        StructuralIndex index = parser.index(json, 2, 3);
+
+        // then
+        assertThat(index.toArray()).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    public void subRangeAndSlicedSegmentGiveSamePositions() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("xx{\"a\": [1, 2]}yy");
+        int len = json.length - 4;
+
+        // when
+        int[] subRangePositions = parser.index(json, 2, len).toArray();
+        int[] segmentPositions = parser.index(MemorySegment.ofArray(json).asSlice(2, len)).toArray();
+
+        // then
+        assertThat(subRangePositions).containsExactly(0, 1, 4, 6, 7, 8, 10, 11, 12);
+        assertThat(segmentPositions).containsExactly(subRangePositions);
+    }
+
+    @Test
+    public void positionsRelativeToSegment() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        MemorySegment heapSegment = MemorySegment.ofArray(toUtf8("xx[1]")).asSlice(2);
+        MemorySegment nativeSegment = toUtf8NativeSegment("[1]");
+
+        // when
+        int[] heapPositions = parser.index(heapSegment).toArray();
+        int[] nativePositions = parser.index(nativeSegment).toArray();
+
+        // then
+        assertThat(heapPositions).containsExactly(0, 1, 2);
+        assertThat(nativePositions).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    public void structureIsNotValidated() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("}1 2{");
+
+        // when
+        StructuralIndex index = parser.index(json, json.length);
+
+        // then
+        assertThat(index.toArray()).containsExactly(0, 1, 3, 4);
+    }
+
+    @Test
+    public void unclosedString() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("[\"abc]");
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, () -> parser.index(json, json.length));
+
+        // then
+        assertThat(ex).hasMessage("Unclosed string. A string is opened, but never closed.");
+    }
+
+    @Test
+    public void outOfBoundsAccess() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("[]");
+        StructuralIndex index = parser.index(json, json.length);
+
+        // when
+        IndexOutOfBoundsException ex = assertThrows(IndexOutOfBoundsException.class, () -> index.get(2));
+
+        // then
+        assertThat(ex).hasMessageContaining("2");
+    }
+
+    @Test
+    public void compactIndex() {
+        // given
+        SimdJsonParser parser = SimdJsonParser.builder().compactIndex(true).build();
+        byte[] json = toUtf8("[1, 2]");
+
+        // when
+        StructuralIndex index = parser.index(json, json.length);
+
+        // then
+        assertThat(index.toArray()).containsExactly(0, 1, 2, 4, 5);
+    }
+
+    @Test
+    public void indexIsReusableForParsing() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("{\"a\": [1, 2]}");
+        parser.index(json, json.length);
+
+        // when
+        JsonValue value = parser.parse(json, json.length);
+
+        // then
+        assertThat(value.get("a").getSize()).isEqualTo(2);
+    }
+}
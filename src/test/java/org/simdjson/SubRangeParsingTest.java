@@ -0,0 +1,144 @@
+package org.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.simdjson.schemas.RecordWithStringField;
+
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.simdjson.testutils.SimdJsonAssertions.assertThat;
+import static org.simdjson.testutils.TestUtils.toUtf8;
+
+public class SubRangeParsingTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 100})
+    public void objectSurroundedByOtherBytes(int trailingBytes) {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        String frame = "{\"a\": [1, \"b\", true]}";
+        byte[] buffer = toUtf8("}]\"x" + frame + "]}\"" + "y".repeat(trailingBytes));
+
+        // when
+        JsonValue jsonValue = parser.parse(buffer, 4, frame.length());
+
+        // then
+        Iterator<JsonValue> it = jsonValue.get("a").arrayIterator();
+        assertThat(it.next()).isEqualTo(1);
+        assertThat(it.next()).isEqualTo("b");
+        assertThat(it.next()).isEqualTo(true);
+        assertThat(it.hasNext()).isFalse();
+    }
+
+    @Test
+    public void numberAtRootFollowedByDigits() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] buffer = toUtf8("9123456" + " ".repeat(100));
+
+        // when
+        JsonValue jsonValue = parser.parse(buffer, 1, 3);
+
+        // then
+        assertThat(jsonValue).isEqualTo(123);
+    }
+
+    @Test
+    public void stringAtRootFollowedByOtherBytes() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] buffer = toUtf8("\"abc\"def\"" + " ".repeat(100));
+
+        // when
+        JsonValue jsonValue = parser.parse(buffer, 0, 5);
+
+        // then
+        assertThat(jsonValue).isEqualTo("abc");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 100})
+    public void schemaBasedParsing(int trailingBytes) {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        String frame = "{\"field\": \"abc\"}";
+        byte[] buffer = toUtf8("{\"field\": \"x\"}" + frame + "{" + " ".repeat(trailingBytes));
+
+        // when
+        RecordWithStringField object = parser.parse(buffer, 14, frame.length(), RecordWithStringField.class);
+
+        // then
+        assertThat(object.field()).isEqualTo("abc");
+    }
+
+    @Test
+    public void stringEndingAtTheEndOfBuffer() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        String frame = "[\"" + "a".repeat(100) + "\\t\"]";
+        byte[] buffer = toUtf8("[0]" + frame);
+
+        // when
+        JsonValue jsonValue = parser.parse(buffer, 3, frame.length());
+
+        // then
+        assertThat(jsonValue.arrayIterator().next()).isEqualTo("a".repeat(100) + "\t");
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            ",[[1]                 | Missing comma between array values",
+            "{[1, [2]              | Missing comma between array values",
+            ",{\"a\": {\"b\": 1}     | No comma between object fields"
+    })
+    public void unclosedNestedContainer(String input, String expectedMessage) {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        SimdJsonParser compactParser = SimdJsonParser.builder().compactIndex(true).build();
+        byte[] warmUp = toUtf8("[[1, [2, [3]]], {\"a\": [4, 5]}, 6]");
+        parser.parse(warmUp, warmUp.length);
+        compactParser.parse(warmUp, warmUp.length);
+        byte[] buffer = toUtf8(input);
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, () -> parser.parse(buffer, 1, buffer.length - 1));
+        JsonParsingException compactEx = assertThrows(JsonParsingException.class, () -> compactParser.parse(buffer, 1, buffer.length - 1));
+        JsonParsingException validationEx = assertThrows(JsonParsingException.class, () -> parser.validate(buffer, 1, buffer.length - 1));
+
+        // then
+        assertThat(ex).hasMessage(expectedMessage);
+        assertThat(compactEx).hasMessage(expectedMessage);
+        assertThat(validationEx).hasMessage(expectedMessage);
+    }
+
+    @Test
+    public void schemaBasedParsingOfUnclosedNestedArray() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] buffer = toUtf8(",[[1]");
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, () -> parser.parse(buffer, 1, 4, int[][].class));
+
+        // then
+        assertThat(ex)
+                .hasMessage("Missing comma between array values");
+    }
+
+    @Test
+    public void rangeOutsideOfBuffer() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] buffer = toUtf8("[1, 2, 3]");
+
+        // when
+        IndexOutOfBoundsException ex = assertThrows(IndexOutOfBoundsException.class, () -> parser.parse(buffer, 5, 5));
+
+        // then
+        assertThat(ex)
+                .hasMessage("Range [5, 5 + 5) out of bounds for length 9");
+    }
+}
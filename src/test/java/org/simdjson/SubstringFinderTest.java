@@ -0,0 +1,68 @@
+package org.simdjson;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SubstringFinderTest {
+
+    @Test
+    public void randomInputs() {
+        // given
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2000; i++) {
+            String text = randomString(random, random.nextInt(300), "abc\n");
+            String pattern = randomString(random, 1 + random.nextInt(4), "abc");
+            int from = random.nextInt(text.length() + 1);
+            int to = from + random.nextInt(text.length() - from + 1);
+            // The bytes after the searched range are readable, but an occurrence can't end there.
+            byte[] buffer = text.getBytes(ISO_8859_1);
+            SubstringFinder finder = new SubstringFinder(pattern.getBytes(ISO_8859_1));
+
+            // when
+            int idx = finder.indexOf(buffer, from, to);
+
+            // then
+            int expected = text.substring(0, to).indexOf(pattern, from);
+            assertThat(idx)
+                    .describedAs("'%s' in '%s' [%d, %d)", pattern, text, from, to)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void longPattern() {
+        // given
+        String pattern = "\"level\":\"ERROR\"";
+        String text = "{\"level\":\"INFO\"}\n".repeat(100) + "{\"level\":\"ERROR\"}\n";
+        SubstringFinder finder = new SubstringFinder(pattern.getBytes(ISO_8859_1));
+
+        // when
+        int idx = finder.indexOf(text.getBytes(ISO_8859_1), 0, text.length());
+
+        // then
+        assertThat(idx).isEqualTo(text.indexOf(pattern));
+    }
+
+    @Test
+    public void emptyPattern() {
+        // when
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> new SubstringFinder(new byte[0]));
+
+        // then
+        assertThat(ex).hasMessage("The pattern cannot be empty.");
+    }
+
+    private static String randomString(Random random, int length, String alphabet) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
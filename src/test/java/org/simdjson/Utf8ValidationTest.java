@@ -10,6 +10,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.simdjson.testutils.TestUtils.toHexString;
+import static org.simdjson.testutils.TestUtils.toUtf8;
 import static org.simdjson.testutils.Utf8TestData.randomUtf8ByteArray;
 import static org.simdjson.testutils.Utf8TestData.randomUtf8ByteArrayIncluding;
 import static org.simdjson.testutils.Utf8TestData.randomUtf8ByteArrayEndedWith;
@@ -423,6 +424,57 @@ public class Utf8ValidationTest {
         }
     }
 
+    @Test
+    public void multibyteSequencesCrossingBlockBoundaries() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        for (int prefixLength = 0; prefixLength < 140; prefixLength++) {
+            String string = "a".repeat(prefixLength) + "ż€\uD83D\uDE00" + "b".repeat(64);
+            byte[] input = toUtf8("\"" + string + "\"");
+
+            // when
+            JsonValue value = parser.parse(input, input.length);
+
+            // then
+            assertThat(value.asString()).isEqualTo(string);
+        }
+    }
+
+    @Test
+    public void truncatedSequencesCrossingBlockBoundaries() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        for (int prefixLength = 0; prefixLength < 140; prefixLength++) {
+            byte[] valid = toUtf8("\"" + "a".repeat(prefixLength) + "\uD83D\uDE00" + "b".repeat(64) + "\"");
+            byte[] input = new byte[valid.length - 1];
+            System.arraycopy(valid, 0, input, 0, prefixLength + 4);
+            System.arraycopy(valid, prefixLength + 5, input, prefixLength + 4, valid.length - prefixLength - 5);
+
+            // when
+            JsonParsingException ex = assertThrows(JsonParsingException.class, () -> parser.parse(input, input.length));
+
+            // then
+            assertThat(ex)
+                    .overridingErrorMessage("Failed for input: %s.", toHexString(input))
+                    .hasMessage("The input is not valid UTF-8");
+        }
+    }
+
+    @Test
+    public void invalidUtf8IsReportedBeforeOtherErrors() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] input = toUtf8("[\"abc\n" + "a".repeat(100) + "ż");
+        input[input.length - 1] = (byte) 0xFF;
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, () -> parser.parse(input, input.length));
+
+        // then
+        assertThat(ex)
+                .hasMessage("The input is not valid UTF-8");
+    }
+
     @Test
     public void validTestFile() throws IOException {
         // given
@@ -0,0 +1,185 @@
+package org.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.Random;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.simdjson.testutils.TestUtils.loadTestFile;
+import static org.simdjson.testutils.TestUtils.toUtf8;
+
+public class ValidationTest {
+
+    private static final String[] TOKENS = {
+            "{", "}", "[", "]", ":", ",", "\"a\"", "\"\\n\"", "\"\\u0041\"", "\"\\ud83d\\ude00\"", "1", "-0.5e3",
+            "01", "1.", "true", "fals", "null", " "
+    };
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"a\": [1, -2.5, 3e10, true, false, null, \"b\"], \"c\": {\"d\": {}}, \"e\": []}",
+            "[[[[]]], [{}], \"\\\" \\\\ \\/ \\b \\f \\n \\r \\t \\u00e9 \\ud83d\\ude00\"]",
+            "\"root string\"",
+            "-9223372036854775808",
+            "1e400",
+            "true",
+            "null",
+            "{}",
+            "[]"
+    })
+    public void validDocuments(String jsonStr) {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8(jsonStr);
+
+        // when
+        assertThatCode(() -> parser.validate(json, json.length))
+                // then
+                .doesNotThrowAnyException();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "{\"a\" 1}",
+            "{\"a\": 1 \"b\": 2}",
+            "{1: 2}",
+            "[1 2]",
+            "[1, 2",
+            "{\"a\": tru}",
+            "[nul]",
+            "falsey",
+            "[01]",
+            "[-]",
+            "[1.]",
+            "[1e]",
+            "9223372036854775808",
+            "[1x]",
+            "[\"\\x\"]",
+            "[\"\\u00G0\"]",
+            "[\"\\udc00\"]",
+            "[\"\\ud83d\"]",
+            "[\"\\ud83d\\u0041\"]",
+            "[1] [2]",
+            "[@]"
+    })
+    public void invalidDocumentsAreReportedAsInParsing(String jsonStr) {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8(jsonStr);
+        JsonParsingException expected = assertThrows(JsonParsingException.class, () -> parser.parse(json, json.length));
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, () -> parser.validate(json, json.length));
+
+        // then
+        assertThat(ex).hasMessage(expected.getMessage());
+    }
+
+    @Test
+    public void invalidUtf8() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = new byte[]{'[', '"', (byte) 0xC0, '"', ']'};
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, () -> parser.validate(json, json.length));
+
+        // then
+        assertThat(ex).hasMessage("The input is not valid UTF-8");
+    }
+
+    @Test
+    public void randomDocuments() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 1000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int tokens = random.nextInt(20);
+            for (int j = 0; j < tokens; j++) {
+                sb.append(TOKENS[random.nextInt(TOKENS.length)]);
+            }
+            byte[] json = toUtf8(sb.toString());
+            String expected = errorOf(() -> parser.parse(json, json.length));
+
+            // when
+            String actual = errorOf(() -> parser.validate(json, json.length));
+
+            // then
+            assertThat(actual).describedAs(sb.toString()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void largeFile() throws IOException {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = loadTestFile("/twitter.json");
+
+        // when
+        parser.validate(json, json.length);
+
+        // then
+        assertThat(parser.parse(json, json.length).get("statuses").getSize()).isEqualTo(100);
+    }
+
+    @Test
+    public void subRange() {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = toUtf8("xx[1, \"a\", 2.5]yy");
+
+        // when
+        assertThatCode(() -> parser.validate(json, 2, 13))
+                // then
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    public void nativeSegment() throws IOException {
+        // given
+        SimdJsonParser parser = new SimdJsonParser();
+        byte[] json = loadTestFile("/twitter.json");
+        MemorySegment segment = Arena.ofAuto().allocate(json.length);
+        MemorySegment.copy(json, 0, segment, JAVA_BYTE, 0, json.length);
+
+        // when
+        assertThatCode(() -> parser.validate(segment))
+                // then
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    public void compactIndex() throws IOException {
+        // given
+        SimdJsonParser parser = SimdJsonParser.builder().compactIndex(true).build();
+        byte[] json = loadTestFile("/twitter.json");
+        byte[] invalid = toUtf8(" ".repeat(70_000) + "[1, 2 3]");
+
+        // when
+        parser.validate(json, json.length);
+        JsonParsingException ex = assertThrows(JsonParsingException.class, () -> parser.validate(invalid, invalid.length));
+
+        // then
+        assertThat(ex).hasMessage("Missing comma between array values");
+    }
+
+    private static String errorOf(Runnable runnable) {
+        try {
+            runnable.run();
+            return null;
+        } catch (JsonParsingException ex) {
+            return ex.getMessage();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.simdjson.schemas.RecordWithStringField;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.simdjson.testutils.TestUtils.loadTestFile;
+import static org.simdjson.testutils.TestUtils.toUtf8;
+
+public class VectorWidthTest {
+
+    @ParameterizedTest
+    @EnumSource(VectorWidth.class)
+    public void sameIndexesForAllWidths(VectorWidth vectorWidth) throws IOException {
+        // given
+        byte[] json = loadTestFile("/twitter.json");
+        BitIndexes expected = new BitIndexes(json.length + 64);
+        new StructuralIndexer(expected, VectorWidth.BITS_128).index(json, json.length);
+        BitIndexes actual = new BitIndexes(json.length + 64);
+        StructuralIndexer indexer = new StructuralIndexer(actual, vectorWidth);
+
+        // when
+        indexer.index(json, json.length);
+
+        // then
+        assertThat(actual.size()).isEqualTo(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i)).isEqualTo(expected.get(i));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(VectorWidth.class)
+    public void longStringsWithEscapes(VectorWidth vectorWidth) {
+        // given
+        SimdJsonParser parser = SimdJsonParser.builder().vectorWidth(vectorWidth).build();
+        String chunk = "żółć \\\"quoted\\\" \\u0041\\n ";
+        String expectedChunk = "żółć \"quoted\" A\n ";
+        byte[] json = toUtf8("{\"a\": \"" + chunk.repeat(20) + "\"}");
+
+        // when
+        JsonValue jsonValue = parser.parse(json, json.length);
+
+        // then
+        assertThat(jsonValue.get("a").asString()).isEqualTo(expectedChunk.repeat(20));
+    }
+
+    @ParameterizedTest
+    @EnumSource(VectorWidth.class)
+    public void schemaBasedParsing(VectorWidth vectorWidth) {
+        // given
+        SimdJsonParser parser = SimdJsonParser.builder().vectorWidth(vectorWidth).build();
+        String value = "abc ".repeat(50);
+        byte[] json = toUtf8("{\"field\": \"" + value + "\"}");
+
+        // when
+        RecordWithStringField object = parser.parse(json, json.length, RecordWithStringField.class);
+
+        // then
+        assertThat(object.field()).isEqualTo(value);
+    }
+
+    @ParameterizedTest
+    @EnumSource(VectorWidth.class)
+    public void invalidUtf8(VectorWidth vectorWidth) {
+        // given
+        SimdJsonParser parser = SimdJsonParser.builder().vectorWidth(vectorWidth).build();
+        byte[] json = toUtf8("[\"" + "a".repeat(200) + "\"]");
+        json[150] = (byte) 0xC0;
+
+        // when
+        JsonParsingException ex = assertThrows(JsonParsingException.class, () -> parser.parse(json, json.length));
+
+        // then
+        assertThat(ex).hasMessage("The input is not valid UTF-8");
+    }
+
+    @Test
+    public void adaptiveWidthForSmallDocuments() {
+        // when
+        int bitSize = VectorWidth.ADAPTIVE.bitSize(1024);
+
+        // then
+        assertThat(bitSize).isEqualTo(Math.min(VectorUtils.BYTE_SPECIES.vectorBitSize(), 256));
+    }
+
+    @Test
+    public void adaptiveWidthForLargeDocuments() {
+        // when
+        int bitSize = VectorWidth.ADAPTIVE.bitSize(1024 * 1024);
+
+        // then
+        assertThat(bitSize).isEqualTo(VectorUtils.BYTE_SPECIES.vectorBitSize());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = VectorWidth.class, names = {"BITS_256", "BITS_512"})
+    public void widthsLimitedByHardware(VectorWidth vectorWidth) {
+        // when
+        int bitSize = vectorWidth.bitSize(1024 * 1024);
+
+        // then
+        assertThat(bitSize).isLessThanOrEqualTo(Math.max(128, ByteVector.SPECIES_PREFERRED.vectorBitSize()));
+    }
+
+    @Test
+    public void builderDefaults() {
+        // given
+        byte[] json = toUtf8(Arrays.toString(new int[100]));
+
+        // when
+        JsonValue jsonValue = SimdJsonParser.builder().build().parse(json, json.length);
+
+        // then
+        assertThat(jsonValue.isArray()).isTrue();
+    }
+}
@@ -2,8 +2,11 @@ package org.simdjson.testutils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
 import java.util.Arrays;
 
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 public class TestUtils {
@@ -20,6 +23,17 @@ public class TestUtils {
         return str.getBytes(UTF_8);
     }
 
+    public static MemorySegment toUtf8NativeSegment(String str) {
+        return toNativeSegment(toUtf8(str));
+    }
+
+    public static MemorySegment toNativeSegment(byte[] bytes) {
+        // The segment is sized exactly to the input, so there is no padding after the last byte.
+        MemorySegment segment = Arena.ofAuto().allocate(bytes.length);
+        MemorySegment.copy(bytes, 0, segment, JAVA_BYTE, 0, bytes.length);
+        return segment;
+    }
+
     public static byte[] loadTestFile(String name) throws IOException {
         try (InputStream is = TestUtils.class.getResourceAsStream(name)) {
             return is.readAllBytes();